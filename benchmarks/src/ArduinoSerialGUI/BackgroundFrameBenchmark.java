@@ -0,0 +1,69 @@
+package ArduinoSerialGUI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// One frame of the animated background, drawn offscreen the way
+// JBackgroundPanel.paintComponent draws it: the cached composite of the
+// background and its dark overlay, then the moving stripes, checkers and
+// streaks. The panel itself needs a window, so the composite is rebuilt
+// here the same way and everything goes into a headless BufferedImage.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BackgroundFrameBenchmark {
+
+    private static final int WIDTH = 1200;
+    private static final int HEIGHT = 800;
+
+    // 30 is the default, 2000 a fast desktop with -Dbuzzwire.particles
+    @Param({"30", "2000"})
+    public int particles;
+
+    private BufferedImage composite;
+    private BufferedImage frame;
+    private BackgroundAnimation animation;
+
+    @Setup
+    public void setUp() {
+        composite = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = composite.createGraphics();
+        Color black = new Color(15, 15, 15);
+        g2d.setPaint(new GradientPaint(0, 0, black, 0, HEIGHT, new Color(220, 0, 0).darker().darker()));
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+        g2d.setColor(new Color(0, 0, 0, 180));
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+        g2d.dispose();
+
+        frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        animation = new BackgroundAnimation(particles, WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public BufferedImage frame() {
+        Graphics2D g2d = frame.createGraphics();
+        g2d.drawImage(composite, 0, 0, null);
+        animation.update(WIDTH, HEIGHT);
+        animation.paint(g2d, WIDTH, HEIGHT);
+        g2d.dispose();
+        return frame;
+    }
+}
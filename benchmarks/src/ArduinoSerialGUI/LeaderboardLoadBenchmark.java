@@ -0,0 +1,109 @@
+package ArduinoSerialGUI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Loading the leaderboard at startup, at 1k, 100k and 1M saved runs:
+//   csvReadAndSort  - parse leaderboard.csv and sort it, the original load path
+//   csvImport       - first start after the CSV was edited: import into the
+//                     binary store, then load and index it
+//   storeLoad       - every other start: load the binary store and index it
+//   storeLoadTop    - the same with -Dbuzzwire.topK=500
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LeaderboardLoadBenchmark {
+
+    private static final int TOP_K = 500;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private File directory;
+    private File csv;
+    private LeaderboardStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("leaderboard-bench").toFile();
+        csv = new File(directory, "leaderboard.csv");
+        LeaderboardStore.writeCsv(randomScores(rows), csv);
+        File records = new File(directory, "leaderboard.bin");
+        store = new LeaderboardStore(records, LeaderboardStore.namesFileFor(records));
+        store.importCsv(csv);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public List<PlayerScore> csvReadAndSort() throws IOException {
+        List<PlayerScore> scores = LeaderboardStore.readCsv(csv);
+        scores.sort(PlayerScore.RANKING);
+        return scores;
+    }
+
+    @Benchmark
+    public LeaderboardIndex csvImport() throws IOException {
+        store.importCsv(csv);
+        LeaderboardIndex index = new LeaderboardIndex();
+        index.load(store.load());
+        return index;
+    }
+
+    @Benchmark
+    public LeaderboardIndex storeLoad() throws IOException {
+        LeaderboardIndex index = new LeaderboardIndex();
+        index.load(store.load());
+        return index;
+    }
+
+    @Benchmark
+    public LeaderboardIndex storeLoadTop() throws IOException {
+        LeaderboardIndex index = new LeaderboardIndex(TOP_K);
+        index.load(store.loadTop(TOP_K));
+        return index;
+    }
+
+    // A season's worth of runs from a few thousand regular drivers
+    static List<PlayerScore> randomScores(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<PlayerScore> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            scores.add(new PlayerScore("DRIVER" + random.nextInt(5000),
+                    20_000 + random.nextInt(160_000), random.nextInt(GameState.MAX_LIVES + 1)));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,80 @@
+package ArduinoSerialGUI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Serial ingest as the station's reader thread does it: bytes arrive in
+// reads of chunkSize and go through SerialLineParser, which calls back for
+// every lives count, "Restart" and "Reset Timer". Reported per line.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialParseBenchmark {
+
+    private static final int LINES = 10_000;
+
+    // 1 is a USB stack handing over byte by byte, 1024 a full read buffer
+    @Param({"1", "64", "1024"})
+    public int chunkSize;
+
+    private byte[] stream;
+    private SerialLineParser parser;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        // A run is a restart, nine buzzes counting down, a timer reset and
+        // now and then a line of noise, with the Arduino's CRLF endings
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int line = 0; line < LINES; line++) {
+            int step = line % 12;
+            String text = step == 0 ? "Restart"
+                    : step <= 9 ? String.valueOf(10 - step)
+                    : step == 10 ? "Reset Timer"
+                    : (line % 24 == 11 ? "#?x9" : "7");
+            out.writeBytes((text + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        stream = out.toByteArray();
+        parser = new SerialLineParser(new SerialLineParser.Listener() {
+            @Override
+            public void onLives(int lives, long arrivalNanos) {
+                blackhole.consume(lives);
+            }
+
+            @Override
+            public void onRestart(long arrivalNanos) {
+                blackhole.consume(arrivalNanos);
+            }
+
+            @Override
+            public void onResetTimer(long arrivalNanos) {
+                blackhole.consume(arrivalNanos);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parse() {
+        for (int offset = 0; offset < stream.length; offset += chunkSize) {
+            parser.feed(stream, offset, Math.min(chunkSize, stream.length - offset), System.nanoTime());
+        }
+    }
+}
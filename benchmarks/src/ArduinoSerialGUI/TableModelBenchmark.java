@@ -0,0 +1,82 @@
+package ArduinoSerialGUI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Filling the leaderboard table: what JTable asks the model for when it
+// paints one screenful of rows, after a refresh (a score was saved) and
+// after a driver search.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class TableModelBenchmark {
+
+    private static final int VISIBLE_ROWS = 30;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private LeaderboardIndex index;
+    private DriverIndex drivers;
+    private LeaderboardTableModel model;
+    private int scroll;
+
+    @Setup
+    public void setUp() {
+        List<PlayerScore> scores = LeaderboardLoadBenchmark.randomScores(rows);
+        index = new LeaderboardIndex();
+        index.load(scores);
+        drivers = new DriverIndex();
+        drivers.load(scores);
+        model = new LeaderboardTableModel(index, drivers);
+    }
+
+    // A new score arrived and the table repaints where it is scrolled to
+    @Benchmark
+    public void refreshAndPaint(Blackhole blackhole) {
+        model.refresh();
+        scroll = (scroll + 7919) % Math.max(1, model.getRowCount() - VISIBLE_ROWS);
+        paintRows(scroll, blackhole);
+    }
+
+    // A driver search narrowing the board to one driver's runs
+    @Benchmark
+    public void searchAndPaint(Blackhole blackhole) {
+        model.setFilter("DRIVER42");
+        paintRows(0, blackhole);
+        model.setFilter("");
+    }
+
+    // A broad search that matches most of the board
+    @Benchmark
+    public void broadSearchAndPaint(Blackhole blackhole) {
+        model.setFilter("DRIVER");
+        paintRows(0, blackhole);
+        model.setFilter("");
+    }
+
+    private void paintRows(int first, Blackhole blackhole) {
+        int last = Math.min(model.getRowCount(), first + VISIBLE_ROWS);
+        for (int row = first; row < last; row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                blackhole.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ArduinoSerialGUI;
+
+import javax.swing.JComponent;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Draws a panel's animated background on its own thread at a steady frame
+// rate, so the EDT only copies finished frames instead of drawing them.
+// Frames are drawn into a back buffer and swapped with the front one; the
+// panel's paintComponent only copies the front buffer, with the Swing
+// labels and buttons painted over it as usual.
+//
+// The EDT still puts each frame on screen through repaint(), so a long task
+// on it, such as a leaderboard reload or an open dialog, still holds up what
+// is shown. frameInterval is therefore recorded when the EDT shows a new
+// frame, so it reports the stalls the screen had, not how smoothly frames
+// were drawn.
+//
+// Frames are paced by this thread's clock, not the display's, against
+// absolute deadlines, so a late frame does not push every later one back,
+// and a frame that falls more than a period behind is skipped rather than
+// rushed.
+final class ActiveRenderer {
+
+    interface Scene {
+        void update(int width, int height);
+
+        void paint(Graphics2D g2d, int width, int height);
+    }
+
+    private final JComponent target;
+    private final Scene scene;
+    private final long periodNanos;
+    private final LatencyRecorder frameTime;
+    private final LatencyRecorder frameInterval;
+    private final Thread thread;
+    private final Object frameLock = new Object();
+    private BufferedImage front;
+    private BufferedImage back;
+    // Frames swapped to the front, under frameLock
+    private long framesDrawn;
+    // EDT only: the last frame shown and when
+    private long frameShown;
+    private long frameShownNanos;
+    // Written on the EDT, read by the render thread
+    private volatile int width;
+    private volatile int height;
+    private volatile boolean active;
+
+    ActiveRenderer(String name, JComponent target, int framesPerSecond, Scene scene,
+                   LatencyRecorder frameTime, LatencyRecorder frameInterval) {
+        this.target = target;
+        this.scene = scene;
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+        this.frameTime = frameTime;
+        this.frameInterval = frameInterval;
+        target.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                width = target.getWidth();
+                height = target.getHeight();
+            }
+        });
+        thread = new Thread(this::renderLoop, "render-" + name);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY + 1);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // From the EDT; the thread sleeps while the panel is hidden or paused
+    void setActive(boolean active) {
+        this.active = active;
+        frameShownNanos = 0; // The pause is not a slow frame
+        width = target.getWidth();
+        height = target.getHeight();
+        if (active) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // Called from paintComponent; returns false until the first frame is ready
+    boolean paintFrame(Graphics g) {
+        synchronized (frameLock) {
+            if (front == null) {
+                return false;
+            }
+            g.drawImage(front, 0, 0, null);
+            // Repaints for the labels show the same frame again, which does not count
+            if (framesDrawn != frameShown) {
+                long now = System.nanoTime();
+                if (frameShownNanos != 0) {
+                    frameInterval.record(now - frameShownNanos);
+                }
+                frameShown = framesDrawn;
+                frameShownNanos = now;
+            }
+            return true;
+        }
+    }
+
+    private void renderLoop() {
+        long nextFrame = System.nanoTime();
+        while (true) {
+            if (!active) {
+                LockSupport.park(this);
+                nextFrame = System.nanoTime();
+                continue;
+            }
+
+            long start = System.nanoTime();
+            renderFrame(Math.max(1, width), Math.max(1, height));
+            frameTime.record(System.nanoTime() - start);
+            target.repaint();
+
+            nextFrame += periodNanos;
+            long wait = nextFrame - System.nanoTime();
+            if (wait < -periodNanos) {
+                nextFrame = System.nanoTime(); // Too far behind to catch up
+            }
+            while (wait > 0) {
+                LockSupport.parkNanos(this, wait); // May return early, so check again
+                wait = nextFrame - System.nanoTime();
+            }
+        }
+    }
+
+    private void renderFrame(int frameWidth, int frameHeight) {
+        if (back == null || back.getWidth() != frameWidth || back.getHeight() != frameHeight) {
+            GraphicsConfiguration config = target.getGraphicsConfiguration();
+            back = config != null
+                    ? config.createCompatibleImage(frameWidth, frameHeight, Transparency.OPAQUE)
+                    : new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+        }
+        scene.update(frameWidth, frameHeight);
+        Graphics2D g2d = back.createGraphics();
+        scene.paint(g2d, frameWidth, frameHeight);
+        g2d.dispose();
+
+        // The EDT copies the front buffer under the same lock, so once the
+        // swap is done nothing is reading the buffer drawn into next
+        synchronized (frameLock) {
+            BufferedImage shown = front;
+            front = back;
+            back = shown;
+            framesDrawn++;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ArduinoSerialGUI;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.Window;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// One Swing timer for every animated panel. A tick only reaches panels that
+// are actually on screen, so the card hidden behind the CardLayout stands
+// still, and the timer itself is stopped while no panel is showing or the
+// window is minimised (or, if asked, not focused). An unattended kiosk then
+// does no animation work at all. Panels that animate on their own thread
+// can watch the same showing and paused state instead of taking ticks.
+// Everything here runs on the EDT.
+final class AnimationClock {
+
+    private static final class Entry {
+        final JComponent component;
+        final Runnable tick;
+        final Consumer<Boolean> onActive;
+        boolean active;
+
+        Entry(JComponent component, Runnable tick, Consumer<Boolean> onActive) {
+            this.component = component;
+            this.tick = tick;
+            this.onActive = onActive;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Timer timer;
+    private boolean iconified;
+    private boolean unfocused;
+    private boolean pauseWhenUnfocused;
+
+    AnimationClock(int periodMillis) {
+        timer = new Timer(periodMillis, e -> tick());
+        timer.setCoalesce(true); // A late tick is dropped rather than queued behind the others
+    }
+
+    // Calls tick on every frame while the component is showing
+    void register(JComponent component, Runnable tick) {
+        add(new Entry(component, tick, null));
+    }
+
+    // Tells onActive whenever the component starts or stops being both
+    // showing and not paused, starting with false
+    void watch(JComponent component, Consumer<Boolean> onActive) {
+        add(new Entry(component, null, onActive));
+    }
+
+    private void add(Entry entry) {
+        entries.add(entry);
+        entry.component.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                updateRunning();
+            }
+        });
+        updateRunning();
+    }
+
+    // Pauses while the window is minimised, and also while it is in the
+    // background if pauseWhenUnfocused is set
+    void attach(Window window, boolean pauseWhenUnfocused) {
+        this.pauseWhenUnfocused = pauseWhenUnfocused;
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowIconified(WindowEvent e) {
+                iconified = true;
+                updateRunning();
+            }
+
+            @Override
+            public void windowDeiconified(WindowEvent e) {
+                iconified = false;
+                updateRunning();
+            }
+
+            @Override
+            public void windowActivated(WindowEvent e) {
+                unfocused = false;
+                updateRunning();
+            }
+
+            @Override
+            public void windowDeactivated(WindowEvent e) {
+                unfocused = true;
+                updateRunning();
+            }
+        });
+    }
+
+    private void tick() {
+        for (Entry entry : entries) {
+            if (entry.tick != null && entry.component.isShowing()) {
+                entry.tick.run();
+            }
+        }
+    }
+
+    private void updateRunning() {
+        boolean paused = iconified || (pauseWhenUnfocused && unfocused);
+        boolean anyShowing = false;
+        for (Entry entry : entries) {
+            boolean showing = entry.component.isShowing();
+            if (entry.tick != null) {
+                anyShowing |= showing;
+            } else if (entry.active != (showing && !paused)) {
+                entry.active = showing && !paused;
+                entry.onActive.accept(entry.active);
+            }
+        }
+        if (anyShowing && !paused) {
+            if (!timer.isRunning()) {
+                timer.start(); // Panels carry on from where they stopped
+            }
+        } else if (timer.isRunning()) {
+            timer.stop();
+        }
+    }
+}
@@ -1,27 +1,28 @@
 package ArduinoSerialGUI;
 
-import com.fazecast.jSerialComm.SerialPort;
-
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableColumnModel;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.Timer;
-import java.awt.Polygon;
 
 public class ArduinoSerialGUI {
 
@@ -32,30 +33,93 @@ public class ArduinoSerialGUI {
     private static final Color F1_DARK_GRAY = new Color(40, 40, 40);
     private static final Color F1_YELLOW = new Color(255, 215, 0);
     
+    private static final int CLOCK_REFRESH_MS = 100;
+    
     private JFrame frame;
-    private JLabel timerLabel;
-    private JLabel attemptLabel;
-    private boolean gameOver = false;
-    private int elapsedSeconds = 0;
-    private Timer gameTimer;
-    private SerialPort comPort;
-    private int attempts = 0;
+    private final List<GameSession> sessions = new ArrayList<>();
     private JPanel mainPanel;
     private JPanel gamePanel;
     private JPanel leaderboardPanel;
     private JTable leaderboardTable;
-    private DefaultTableModel leaderboardModel;
+    private LeaderboardTableModel leaderboardModel;
     private final String LEADERBOARD_FILE = "leaderboard.csv";
+    private final String LEADERBOARD_STORE = "leaderboard.bin";
     private Font f1Font;
     private Font f1BoldFont;
     private Font f1TitleFont;
+    private final LatencyRecorder serialLatency = new LatencyRecorder("Serial byte-to-label latency");
+    private final LatencyRecorder backgroundPaintTime = new LatencyRecorder("Background paint time");
+    // Streaks per background, e.g. -Dbuzzwire.particles=2000 on a fast machine
+    private static final int PARTICLE_COUNT = Integer.getInteger("buzzwire.particles", 30);
+    // Shared 30 FPS clock for the background animations
+    private final AnimationClock animationClock = new AnimationClock(33);
+    // -Dbuzzwire.render=active draws the backgrounds on their own threads instead of the EDT
+    private static final boolean ACTIVE_RENDERING = "active".equals(System.getProperty("buzzwire.render"));
+    private static final int TARGET_FPS = Integer.getInteger("buzzwire.fps", 30);
+    private final LatencyRecorder renderFrameTime = new LatencyRecorder("Render thread frame time");
+    private final LatencyRecorder renderFrameInterval = new LatencyRecorder("Shown frame interval");
+    // Numbers the render threads of the background panels
+    private int backgroundPanels;
+    // Serial threads reach the labels through this, at most once per frame
+    private final UiBridge uiBridge = new UiBridge(16, serialLatency);
+    // Shown frames are counted by the panel paints, or with a render thread as
+    // new frames reach the screen; the drawing happens on the render thread
+    private final PerfHud perfHud = new PerfHud(uiBridge, ACTIVE_RENDERING ? renderFrameInterval : backgroundPaintTime,
+            ACTIVE_RENDERING ? renderFrameTime : backgroundPaintTime, serialLatency);
+    private final EventJournal journal;
+    private final Leaderboard leaderboard;
+    private final StartupProbe startupProbe = new StartupProbe(true);
+    private final FontLookup fontLookup = new FontLookup(new File("fonts.cache"));
+    // Built once on its own thread and shared by both screens, which show a
+    // plain placeholder until it is ready
+    private final CompletableFuture<Image> background = new CompletableFuture<>();
+    private JLabel driverStatsLabel;
+    // Stations waiting to ask for a driver name, and whether a dialog is up; EDT only
+    private final Queue<GameSession> finishedRuns = new ArrayDeque<>();
+    private boolean nicknameDialogOpen;
 
     public ArduinoSerialGUI() {
+        this(StationEngine.parseTransports(System.getProperty("buzzwire.port", "COM6")));
+    }
+
+    public ArduinoSerialGUI(List<SerialTransport> transports) {
+        Thread assets = new Thread(() -> background.complete(loadBackground()), "assets");
+        assets.setDaemon(true);
+        assets.start();
+
+        journal = StationEngine.openJournal(System.getProperty("buzzwire.journal", "events.journal"));
+        StationEngine.Listener stationListener = new StationEngine.Listener() {
+            @Override
+            public void onChange(StationEngine station, GameState previous, GameState next,
+                                 long nanos, boolean fromSerial) {
+                sessions.get(station.getIndex()).onChange(previous, next, nanos, fromSerial);
+            }
+
+            @Override
+            public void onStatus(StationEngine station, String message) {
+                sessions.get(station.getIndex()).updateAttemptLabel(message);
+            }
+
+            @Override
+            public void onConnected(StationEngine station) {
+                startupProbe.serialReady(station.getName());
+            }
+        };
+        for (StationEngine station : StationEngine.createAll(transports, journal, stationListener)) {
+            sessions.add(new GameSession(station));
+        }
+        // With -Dbuzzwire.topK=N only the best N scores are loaded and kept; 0 keeps them all
+        leaderboard = new Leaderboard(new File(LEADERBOARD_FILE), new File(LEADERBOARD_STORE),
+                Integer.getInteger("buzzwire.topK", 0), System.getProperty("buzzwire.scoreSync", "row"),
+                message -> SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(frame, message,
+                        "Error", JOptionPane.ERROR_MESSAGE)));
+
         // Load custom F1 fonts
         loadF1Fonts();
         
         frame = new JFrame("Buzz Wire Challenge");
-        frame.setSize(800, 600);
+        animationClock.attach(frame, Boolean.getBoolean("buzzwire.pauseWhenUnfocused"));
+        frame.setSize(sessions.size() == 1 ? 800 : 1200, sessions.size() == 1 ? 600 : 900);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setLocationRelativeTo(null);
         frame.setIconImage(createF1Icon().getImage());
@@ -76,34 +140,81 @@ public class ArduinoSerialGUI {
         frame.add(mainPanel);
         frame.setVisible(true);
 
-        startTimer();
-        new Thread(this::listenToSerial).start();
+        // F3 shows or hides the performance overlay
+        JRootPane rootPane = frame.getRootPane();
+        rootPane.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "togglePerfHud");
+        rootPane.getActionMap().put("togglePerfHud", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                perfHud.toggle();
+            }
+        });
+        perfHud.setEnabled(Boolean.getBoolean("buzzwire.hud"));
+
+        // JMX and /metrics export and the leaderboard web server, started off
+        // the EDT as JMX is slow to set up. EDT delay is only probed while the
+        // HUD shows, unless metrics are on.
+        Metrics metrics = new Metrics();
+        List<StationEngine> engines = new ArrayList<>();
+        for (GameSession session : sessions) {
+            engines.add(session.engine);
+        }
+        metrics.addStations(engines, journal);
+        metrics.latency("Ui", "buzz_to_ui_seconds", "From a line arriving to the label showing it", serialLatency);
+        metrics.counter("Ui", "ui_updates_total", "Label updates posted by the serial threads", uiBridge::getPosted);
+        metrics.counter("Ui", "ui_updates_merged_total", "Label updates merged into a later one", uiBridge::getMerged);
+        metrics.latency("Ui", "frame_seconds", "Time to draw one background frame",
+                ACTIVE_RENDERING ? renderFrameTime : backgroundPaintTime);
+        metrics.latency("Ui", "edt_lag_seconds", "Time events wait in the EDT queue", perfHud.getEdtDelay());
+        metrics.addLeaderboard(leaderboard);
+        metrics.addJvm();
+        Thread exporter = new Thread(() -> {
+            if (metrics.start()) {
+                SwingUtilities.invokeLater(perfHud::keepProbing);
+            }
+            LeaderboardServer.startFromProperties(leaderboard);
+        }, "exporters");
+        exporter.setDaemon(true);
+        exporter.start();
+
+        // Report buzz latency and paint time on exit so they can be checked on the kiosks,
+        // and make sure the journal and saved scores have reached the disk
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            journal.close();
+            leaderboard.close();
+            System.out.println(serialLatency.summary());
+            System.out.println(backgroundPaintTime.summary());
+            System.out.println(uiBridge.summary());
+            if (ACTIVE_RENDERING) {
+                System.out.println(renderFrameTime.summary());
+                System.out.println(renderFrameInterval.summary());
+            }
+            System.out.println(leaderboard.getWriteLatency().summary());
+        }));
+
+        for (GameSession session : sessions) {
+            session.engine.start();
+        }
     }
     
     private void loadF1Fonts() {
         // Using system fonts that resemble F1 style
-        f1Font = new Font("Arial", Font.PLAIN, 16);
-        f1BoldFont = new Font("Arial", Font.BOLD, 20);
-        f1TitleFont = new Font("Arial", Font.BOLD, 32);
+        String family = "Arial";
         
-        // Try to load Formula 1 font if available on the system
+        // Use a Formula 1 style font if one is installed
         try {
-            GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-            Font[] fonts = ge.getAllFonts();
-            for (Font font : fonts) {
-                if (font.getFontName().contains("Formula") || 
-                    font.getFontName().contains("Racing") || 
-                    font.getFontName().contains("F1")) {
-                    f1Font = font.deriveFont(Font.PLAIN, 16);
-                    f1BoldFont = font.deriveFont(Font.BOLD, 20);
-                    f1TitleFont = font.deriveFont(Font.BOLD, 32);
-                    break;
-                }
+            String racingFamily = fontLookup.find();
+            if (racingFamily != null) {
+                family = racingFamily;
             }
         } catch (Exception e) {
             // Fallback to default fonts if custom font loading fails
             System.out.println("Using default fonts: " + e.getMessage());
         }
+        f1Font = new Font(family, Font.PLAIN, 16);
+        f1BoldFont = new Font(family, Font.BOLD, 20);
+        f1TitleFont = new Font(family, Font.BOLD, 32);
     }
     
     private ImageIcon createF1Icon() {
@@ -150,33 +261,6 @@ public class ArduinoSerialGUI {
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         titlePanel.add(titleLabel);
         
-        // Create timer and attempts display with F1-style
-        JPanel infoPanel = new JPanel();
-        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-        infoPanel.setOpaque(false);
-        infoPanel.setBorder(BorderFactory.createEmptyBorder(30, 0, 30, 0));
-        
-        // Timer panel with F1 styling
-        JPanel timerPanel = createF1Panel("RACE TIME");
-        timerLabel = new JLabel("0:00", SwingConstants.CENTER);
-        timerLabel.setFont(f1TitleFont);
-        timerLabel.setForeground(Color.WHITE);
-        timerLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        timerPanel.add(timerLabel);
-        
-        // Attempts panel with F1 styling
-        JPanel attemptsPanel = createF1Panel("REMAINING LIVES");
-        attemptLabel = new JLabel("9", SwingConstants.CENTER);
-        attemptLabel.setFont(f1TitleFont);
-        attemptLabel.setForeground(Color.WHITE);
-        attemptLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        attemptsPanel.add(attemptLabel);
-        
-        // Add timer and attempts panels to info panel
-        infoPanel.add(timerPanel);
-        infoPanel.add(Box.createVerticalStrut(20));
-        infoPanel.add(attemptsPanel);
-        
         // Instructions panel
         JPanel instructionPanel = new JPanel();
         instructionPanel.setOpaque(false);
@@ -190,13 +274,6 @@ public class ArduinoSerialGUI {
         // Button panel
         JPanel buttonPanel = new JPanel();
         buttonPanel.setOpaque(false);
-        JButton startButton = createF1Button("START");
-        startButton.addActionListener(e -> {
-            attempts = 9; // Reset attempts to 9
-            updateAttemptLabel("Attempt: " + attempts); // Update the display
-            startTimer(); // Start the timer countdown
-            gameOver = false; // Reset game over state if needed
-        });
 
         JButton viewLeaderboardButton = createF1Button("VIEW LEADERBOARD");
         viewLeaderboardButton.addActionListener(e -> {
@@ -214,50 +291,30 @@ public class ArduinoSerialGUI {
         JOptionPane.WARNING_MESSAGE);
  
         if (result == JOptionPane.YES_OPTION) {
-        try {
-            File file = new File(LEADERBOARD_FILE);
-            if (file.exists()) {
-                new PrintWriter(file).close(); // Clear file contents
-            }
+            // Journaled so a rebuild from the journal stays reset too
+            journal.append(JournalEvent.Type.CLEAR, 0, System.nanoTime(), 0);
+            leaderboard.clear();
             loadLeaderboard(); // Reload the now-empty leaderboard
             JOptionPane.showMessageDialog(frame, "Leaderboard reset successfully!",
                     "Reset Complete", JOptionPane.INFORMATION_MESSAGE);
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(frame, "Error resetting leaderboard: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
         }
         });
 
-         // Stop button - Pauses the timer without ending the game
-        JButton stopButton = createF1Button("STOP");
-        stopButton.addActionListener(e -> {
-        if (gameTimer != null && gameTimer.isRunning()) {
-        gameTimer.stop();
-        }
-        });
- 
-        buttonPanel.add(viewLeaderboardButton);
-        JButton finishButton = createF1Button("FINISH");
-        finishButton.addActionListener(e -> {
-        if (!gameOver) {
-        gameOver = true;
-        if (gameTimer != null) {
-            gameTimer.stop();
-        }
-        showNicknameDialog(); // Prompt for nickname and save score
-        }
-        });
-        buttonPanel.add(startButton);
-        buttonPanel.add(stopButton);
-        buttonPanel.add(finishButton);
-        buttonPanel.add(viewLeaderboardButton);
-        buttonPanel.add(resetButton);
-        
         // Add all components to content panel
         contentPanel.add(titlePanel);
         contentPanel.add(Box.createVerticalStrut(20));
-        contentPanel.add(infoPanel);
+        if (sessions.size() == 1) {
+            // Single rig: the station controls sit in the main button row
+            GameSession session = sessions.get(0);
+            contentPanel.add(session.createInfoPanel());
+            for (JButton button : session.createControlButtons()) {
+                buttonPanel.add(button);
+            }
+        } else {
+            contentPanel.add(createStationsPanel());
+        }
+        buttonPanel.add(viewLeaderboardButton);
+        buttonPanel.add(resetButton);
         contentPanel.add(instructionPanel);
         contentPanel.add(Box.createVerticalStrut(20));
         contentPanel.add(buttonPanel);
@@ -265,6 +322,26 @@ public class ArduinoSerialGUI {
         // Add content panel to game panel
         gamePanel.add(contentPanel, BorderLayout.CENTER);
     }
+
+    private JComponent createStationsPanel() {
+        // A few rigs fit side by side; beyond that each station gets a tab
+        if (sessions.size() <= 4) {
+            JPanel tiles = new JPanel(new GridLayout(0, 2, 20, 20));
+            tiles.setOpaque(false);
+            for (GameSession session : sessions) {
+                tiles.add(session.createStationPanel());
+            }
+            return tiles;
+        }
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.setOpaque(false);
+        tabs.setFont(f1BoldFont);
+        for (GameSession session : sessions) {
+            tabs.addTab(session.engine.getName(), session.createStationPanel());
+        }
+        return tabs;
+    }
     
     private JPanel createF1Panel(String title) {
         JPanel panel = new JPanel();
@@ -314,20 +391,58 @@ public class ArduinoSerialGUI {
         titleLabel.setForeground(Color.WHITE);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         titlePanel.add(titleLabel);
-        contentPanel.add(titlePanel, BorderLayout.NORTH);
 
-        // Create table model with columns
-        leaderboardModel = new DefaultTableModel() {
+        // Create table model backed by the leaderboard index, searching off the EDT
+        ExecutorService driverSearch = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "driver-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        leaderboardModel = new LeaderboardTableModel(leaderboard.getIndex(), leaderboard.getDrivers(),
+                driverSearch, SwingUtilities::invokeLater);
+        // The stats line counts the rows, so it follows the table
+        leaderboardModel.addTableModelListener(e -> updateDriverStats(leaderboardModel.getFilter()));
+
+        // Driver search, filtering the table as the name is typed
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.setOpaque(false);
+        JLabel searchLabel = new JLabel("DRIVER:");
+        searchLabel.setFont(f1BoldFont);
+        searchLabel.setForeground(Color.WHITE);
+        JTextField searchField = new JTextField(12);
+        searchField.setFont(f1Font);
+        searchField.setBackground(F1_BLACK);
+        searchField.setForeground(Color.WHITE);
+        searchField.setCaretColor(Color.WHITE);
+        searchField.setBorder(BorderFactory.createLineBorder(F1_RED, 2));
+        driverStatsLabel = new JLabel(" ");
+        driverStatsLabel.setFont(f1Font);
+        driverStatsLabel.setForeground(F1_SILVER);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
+            public void insertUpdate(DocumentEvent e) {
+                searchDrivers(searchField.getText());
             }
-        };
-        leaderboardModel.addColumn("POS");
-        leaderboardModel.addColumn("DRIVER");
-        leaderboardModel.addColumn("TIME");
-        leaderboardModel.addColumn("LIVES");
-        leaderboardModel.addColumn("POINTS");
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchDrivers(searchField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchDrivers(searchField.getText());
+            }
+        });
+        searchPanel.add(searchLabel);
+        searchPanel.add(searchField);
+        searchPanel.add(driverStatsLabel);
+
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setOpaque(false);
+        headerPanel.add(titlePanel, BorderLayout.NORTH);
+        headerPanel.add(searchPanel, BorderLayout.SOUTH);
+        contentPanel.add(headerPanel, BorderLayout.NORTH);
 
         // Create table with F1 styling
         leaderboardTable = new JTable(leaderboardModel);
@@ -365,13 +480,15 @@ public class ArduinoSerialGUI {
             @Override
             public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
                 Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-                if (row == 0) {
+                // Podium colours follow the position, which differs from the row while searching
+                int position = value instanceof Integer ? (Integer) value : 0;
+                if (position == 1) {
                     c.setBackground(isSelected ? F1_RED.darker() : F1_YELLOW);
                     c.setForeground(F1_BLACK);
-                } else if (row == 1) {
+                } else if (position == 2) {
                     c.setBackground(isSelected ? F1_RED.darker() : F1_SILVER);
                     c.setForeground(F1_BLACK);
-                } else if (row == 2) {
+                } else if (position == 3) {
                     c.setBackground(isSelected ? F1_RED.darker() : new Color(205, 127, 50)); // Bronze
                     c.setForeground(F1_BLACK);
                 } else {
@@ -429,69 +546,56 @@ public class ArduinoSerialGUI {
         leaderboardPanel.add(contentPanel, BorderLayout.CENTER);
 
         // Load leaderboard data
+        readLeaderboardFile();
         loadLeaderboard();
     }
 
-    private void startTimer() {
-        if (gameTimer != null && gameTimer.isRunning()) {
-            gameTimer.stop();
-        }
-
-        elapsedSeconds = 0;
-        updateTimerLabel(0);
-        gameOver = false;
-
-        SwingUtilities.invokeLater(() -> {
-            attemptLabel.setVisible(true);
-            attemptLabel.setText("Attempt: 9");
-        });
-
-        gameTimer = new Timer(1000, e -> {
-            if (gameOver) {
-                ((Timer) e.getSource()).stop();
-                return;
-            }
-            elapsedSeconds++;
-            updateTimerLabel(elapsedSeconds);
-
-            if (elapsedSeconds >= 180) {
-                triggerGameOver();
-            }
-        });
-        gameTimer.start();
+    private void searchDrivers(String prefix) {
+        leaderboardModel.setFilter(prefix);
     }
 
-    private void updateTimerLabel(int seconds) {
-        int minutes = seconds / 60;
-        int sec = seconds % 60;
-        SwingUtilities.invokeLater(() ->
-                timerLabel.setText(String.format("Time: %d:%02d", minutes, sec))
-        );
+    // Full stats for a single matching driver, otherwise how many matched
+    private void updateDriverStats(String prefix) {
+        if (prefix.trim().isEmpty()) {
+            driverStatsLabel.setText(" ");
+            return;
+        }
+        List<DriverStats> matches = leaderboard.getDrivers().search(prefix);
+        DriverStats exact = leaderboard.getDrivers().get(prefix.trim());
+        if (exact != null || matches.size() == 1) {
+            driverStatsLabel.setText((exact != null ? exact : matches.get(0)).summary());
+        } else {
+            driverStatsLabel.setText(matches.size() + " drivers, " + leaderboardModel.getRowCount() + " runs on the board");
+        }
     }
 
-    private void triggerGameOver() {
-        if (gameOver) return;
-        gameOver = true;
-
-        if (gameTimer != null) {
-            gameTimer.stop();
+    // On the EDT. Finished runs wait their turn, so stations that finish
+    // together get one dialog after the other rather than nested ones
+    private void queueNicknameDialog(GameSession session) {
+        if (!finishedRuns.contains(session)) {
+            finishedRuns.add(session);
+        }
+        if (!nicknameDialogOpen) {
+            nicknameDialogOpen = true;
+            // Not from inside the UI bridge's flush, which the modal dialog would hold up
+            SwingUtilities.invokeLater(this::showNextNicknameDialog);
         }
-
-        SwingUtilities.invokeLater(() -> {
-            attemptLabel.setText("GAME OVER");
-        });
-
-        // Show nickname input dialog
-        showNicknameDialog();
     }
 
-    private void updateAttemptLabel(String text) {
-        SwingUtilities.invokeLater(() -> attemptLabel.setText(text));
+    private void showNextNicknameDialog() {
+        GameSession session = finishedRuns.poll();
+        if (session == null) {
+            nicknameDialogOpen = false;
+            return;
+        }
+        showNicknameDialog(session); // Returns once the dialog is closed
+        SwingUtilities.invokeLater(this::showNextNicknameDialog);
     }
 
-    private void showNicknameDialog() {
+    private void showNicknameDialog(GameSession session) {
         // Create custom F1-styled dialog
-        JDialog dialog = new JDialog(frame, "RACE COMPLETE", true);
+        String title = sessions.size() == 1 ? "RACE COMPLETE" : "RACE COMPLETE - " + session.engine.getName();
+        JDialog dialog = new JDialog(frame, title, true);
         dialog.setSize(400, 200);
         dialog.setLocationRelativeTo(frame);
         dialog.setLayout(new BorderLayout());
@@ -527,8 +631,7 @@ public class ArduinoSerialGUI {
             if (!nicknameField.getText().trim().isEmpty()) {
                 dialog.dispose();
                 String nickname = nicknameField.getText().trim();
-                int livesLeft = attempts;
-                saveScore(nickname, elapsedSeconds, livesLeft);
+                leaderboard.save(session.engine.score(nickname));
                 loadLeaderboard();
                 
                 // Switch to leaderboard view
@@ -540,7 +643,7 @@ public class ArduinoSerialGUI {
         cancelButton.addActionListener(e -> {
             dialog.dispose();
             // If user cancels, just restart the game
-            Timer restartTimer = new Timer(1000, ev -> startTimer());
+            Timer restartTimer = new Timer(1000, ev -> session.engine.resetTimer());
             restartTimer.setRepeats(false);
             restartTimer.start();
         });
@@ -558,421 +661,392 @@ public class ArduinoSerialGUI {
         dialog.setVisible(true);
     }
 
-    private void saveScore(String nickname, int time, int livesLeft) {
+    private void readLeaderboardFile() {
         try {
-            File file = new File(LEADERBOARD_FILE);
-            boolean fileExists = file.exists();
-            
-            FileWriter fw = new FileWriter(file, true);
-            BufferedWriter bw = new BufferedWriter(fw);
-            
-            // If file doesn't exist, write header
-            if (!fileExists) {
-                bw.write("Player,Time,LivesLeft\n");
-            }
-            
-            // Write the score
-            bw.write(String.format("%s,%d,%d\n", nickname, time, livesLeft));
-            bw.close();
-            
+            leaderboard.load();
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "Error saving score: " + e.getMessage(),
+            JOptionPane.showMessageDialog(frame, "Error loading leaderboard: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     private void loadLeaderboard() {
-        // Clear existing data
-        while (leaderboardModel.getRowCount() > 0) {
-            leaderboardModel.removeRow(0);
+        // The model reads rows from the index as the table paints them
+        leaderboardModel.refresh();
+    }
+
+    // The window's side of one buzz-wire rig: its race clock and lives labels
+    // and its buttons. The game itself is played by the station's engine; the
+    // GUI shows one of these per connected station.
+    private class GameSession {
+        private final StationEngine engine;
+        private JLabel timerLabel;
+        private JLabel attemptLabel;
+        // Only refreshes the on-screen clock; the time itself comes from the state
+        private final Timer gameTimer = new Timer(CLOCK_REFRESH_MS, e -> onClockTick());
+
+        GameSession(StationEngine engine) {
+            this.engine = engine;
         }
-        
-        try {
-            File file = new File(LEADERBOARD_FILE);
-            if (!file.exists()) {
-                return; // No leaderboard file yet
-            }
-            
-            BufferedReader br = new BufferedReader(new FileReader(file));
-            String line;
+
+        private JPanel createInfoPanel() {
+            // Create timer and attempts display with F1-style
+            JPanel infoPanel = new JPanel();
+            infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+            infoPanel.setOpaque(false);
+            infoPanel.setBorder(BorderFactory.createEmptyBorder(30, 0, 30, 0));
             
-            // Skip header
-            br.readLine();
+            // Timer panel with F1 styling
+            JPanel timerPanel = createF1Panel("RACE TIME");
+            timerLabel = new JLabel("0:00", SwingConstants.CENTER);
+            timerLabel.setFont(f1TitleFont);
+            timerLabel.setForeground(Color.WHITE);
+            timerLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            timerPanel.add(timerLabel);
             
-            List<PlayerScore> scores = new ArrayList<>();
+            // Attempts panel with F1 styling
+            JPanel attemptsPanel = createF1Panel("REMAINING LIVES");
+            attemptLabel = new JLabel("9", SwingConstants.CENTER);
+            attemptLabel.setFont(f1TitleFont);
+            attemptLabel.setForeground(Color.WHITE);
+            attemptLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            attemptsPanel.add(attemptLabel);
             
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    String player = parts[0];
-                    int time = Integer.parseInt(parts[1]);
-                    int livesLeft = Integer.parseInt(parts[2]);
-                    scores.add(new PlayerScore(player, time, livesLeft));
-                }
+            // Add timer and attempts panels to info panel
+            infoPanel.add(timerPanel);
+            infoPanel.add(Box.createVerticalStrut(20));
+            infoPanel.add(attemptsPanel);
+            return infoPanel;
+        }
+
+        private List<JButton> createControlButtons() {
+            JButton startButton = createF1Button("START");
+            // Full lives and a fresh clock
+            startButton.addActionListener(e -> engine.restart());
+
+             // Stop button - Pauses the timer without ending the game
+            JButton stopButton = createF1Button("STOP");
+            stopButton.addActionListener(e -> engine.stopClock());
+
+            // Ends the game; onChange() prompts for the nickname if this is the transition that did it
+            JButton finishButton = createF1Button("FINISH");
+            finishButton.addActionListener(e -> engine.finish());
+
+            List<JButton> buttons = new ArrayList<>();
+            buttons.add(startButton);
+            buttons.add(stopButton);
+            buttons.add(finishButton);
+            return buttons;
+        }
+
+        // Tile used when several stations share the window
+        private JPanel createStationPanel() {
+            JPanel panel = new JPanel();
+            panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+            panel.setOpaque(false);
+
+            JLabel nameLabel = new JLabel(engine.getName());
+            nameLabel.setFont(f1BoldFont);
+            nameLabel.setForeground(Color.WHITE);
+            nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            panel.add(nameLabel);
+            panel.add(createInfoPanel());
+
+            JPanel buttonPanel = new JPanel();
+            buttonPanel.setOpaque(false);
+            for (JButton button : createControlButtons()) {
+                buttonPanel.add(button);
             }
-            br.close();
-            
-            // Sort scores (faster time and more lives left is better)
-            Collections.sort(scores, new Comparator<PlayerScore>() {
-                @Override
-                public int compare(PlayerScore p1, PlayerScore p2) {
-                    // First compare by lives left (more is better)
-                    int livesComparison = Integer.compare(p2.livesLeft, p1.livesLeft);
-                    if (livesComparison != 0) {
-                        return livesComparison;
-                    }
-                    // Then compare by time (less is better)
-                    return Integer.compare(p1.time, p2.time);
+            panel.add(buttonPanel);
+            return panel;
+        }
+
+        // Called by the engine on whichever thread changed the state. Only the
+        // transition that actually ended the game opens the nickname dialog.
+        private void onChange(GameState previous, GameState next, long nanos, boolean fromSerial) {
+            // render() shows the latest state, so only the newest pending update matters
+            uiBridge.post(this, this::render, fromSerial ? nanos : 0);
+            if (!previous.gameOver() && next.gameOver()) {
+                uiBridge.postEvent(() -> queueNicknameDialog(this)); // Prompt for nickname and save score
+            }
+        }
+
+        // Always shows the latest state, so updates posted out of order are harmless
+        private void render() {
+            GameState current = engine.currentState();
+            attemptLabel.setVisible(true);
+            attemptLabel.setText(current.gameOver() ? "GAME OVER" : "Attempt: " + current.attempts());
+
+            // Tenths while the clock runs, full milliseconds once it has stopped
+            long millis = current.elapsedMillis(System.nanoTime());
+            if (current.clockRunning()) {
+                timerLabel.setText(String.format("Time: %d:%02d.%d",
+                        millis / 60_000, (millis / 1000) % 60, (millis / 100) % 10));
+                if (!gameTimer.isRunning()) {
+                    gameTimer.start();
                 }
-            });
-            
-            // Add to table model
-            int rank = 1;
-            for (PlayerScore score : scores) {
-                int minutes = score.time / 60;
-                int seconds = score.time % 60;
-                String timeStr = String.format("%d:%02d", minutes, seconds);
-                
-                // Calculate score - higher is better
-                // Formula: (lives_left * 1000) - time_in_seconds
-                int scoreValue = (score.livesLeft * 1000) - score.time;
-                
-                leaderboardModel.addRow(new Object[] {
-                    rank++,
-                    score.player,
-                    timeStr,
-                    score.livesLeft,
-                    scoreValue
-                });
+            } else {
+                timerLabel.setText("Time: " + PlayerScore.formatRaceTime(millis));
+                gameTimer.stop();
             }
-            
-            // Force table to refresh and update its display
-            leaderboardTable.revalidate();
-            leaderboardTable.repaint();
-            
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(frame, "Error loading leaderboard: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
         }
-    }
 
-    private void listenToSerial() {
-        comPort = SerialPort.getCommPort("COM6");
-        comPort.setBaudRate(9600);
+        private void onClockTick() {
+            if (!engine.checkTimeLimit(System.nanoTime())) {
+                render();
+            }
+        }
 
-        if (!comPort.openPort()) {
-            updateAttemptLabel("Failed to open port");
-            return;
+        // Same key as render(), so whichever was posted last is what shows
+        private void updateAttemptLabel(String text) {
+            uiBridge.post(this, () -> attemptLabel.setText(text));
         }
+    }
 
+    // Runs on the assets thread, off the EDT
+    private Image loadBackground() {
+        // Try to load background image
         try {
-            byte[] buffer = new byte[1024];
-            while (true) {
-                while (comPort.bytesAvailable() == 0) {
-                    Thread.sleep(20);
-                }
-                int numRead = comPort.readBytes(buffer, buffer.length);
-                if (numRead > 0) {
-                    String data = new String(buffer, 0, numRead).trim();
-                    String[] lines = data.split("\\r?\\n");
-                    for (String line : lines) {
-                        if (line.equalsIgnoreCase("Restart")) {
-                            SwingUtilities.invokeLater(() -> {
-                                attempts = 9;
-                                startTimer();
-                                updateAttemptLabel("Attempt: " + attempts);
-                            });
-                        } else if (line.equalsIgnoreCase("Reset Timer")) {
-                            SwingUtilities.invokeLater(this::startTimer);
-                        } else if (!gameOver && line.matches("\\d+")) {
-                            attempts = Integer.parseInt(line);
-                            updateAttemptLabel("Attempt: " + attempts);
-                            
-                            // Check if game over (no more attempts)
-                            if (attempts <= 0) {
-                                triggerGameOver();
-                            }
-                        }
+            // First try to load from resources directory
+            // Fix the file paths to use absolute paths
+            File imageFile = new File("c:\\buzzWireGUI\\src\\resources\\f1_background.jpg");
+            File svgFile = new File("c:\\buzzWireGUI\\src\\resources\\f1_background.svg");
+
+            if (imageFile.exists()) {
+                return new ImageIcon(imageFile.getAbsolutePath()).getImage();
+            } else if (svgFile.exists()) {
+                // Load SVG file
+                try {
+                    Image svgImage = loadSVG(svgFile);
+                    if (svgImage != null) {
+                        return svgImage;
                     }
+                } catch (Exception e) {
+                    System.out.println("Error loading SVG: " + e.getMessage());
                 }
             }
         } catch (Exception e) {
-            updateAttemptLabel("Error: " + e.getMessage());
-        } finally {
-            comPort.closePort();
+            System.out.println("Error loading background image: " + e.getMessage());
         }
+        // Fallback to creating a gradient background
+        return createGradientBackground();
     }
 
-    // Class to store player scores
-    private static class PlayerScore {
-        String player;
-        int time;
-        int livesLeft;
-        
-        public PlayerScore(String player, int time, int livesLeft) {
-            this.player = player;
-            this.time = time;
-            this.livesLeft = livesLeft;
-        }
+    // Looks for newly installed fonts once the window is up, for the next launch
+    private void onFirstFrame() {
+        Thread refresh = new Thread(fontLookup::refresh, "font-refresh");
+        refresh.setDaemon(true);
+        refresh.setPriority(Thread.MIN_PRIORITY);
+        refresh.start();
     }
 
-    // Class to represent a racing particle for animation
-    private class RacingParticle {
-        int x, y;
-        int speed;
-        int size;
-        Color color;
-        
-        public RacingParticle(int x, int y, int speed, int size) {
-            this.x = x;
-            this.y = y;
-            this.speed = speed;
-            this.size = size;
-            
-            // Randomly choose between F1 red or white with transparency
-            if (new Random().nextBoolean()) {
-                this.color = new Color(F1_RED.getRed(), F1_RED.getGreen(), F1_RED.getBlue(), 100 + new Random().nextInt(100));
-            } else {
-                this.color = new Color(255, 255, 255, 50 + new Random().nextInt(100));
+    private Image loadSVG(File svgFile) {
+        try {
+            // Create a simple renderer for the SVG
+            int width = 1280;
+            int height = 720;
+            BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = img.createGraphics();
+
+            // Set rendering hints for better quality
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+            // Create a fallback background in case SVG can't be rendered properly
+            g2d.setColor(F1_BLACK);
+            g2d.fillRect(0, 0, width, height);
+
+            // Create a gradient background with F1 colors
+            GradientPaint gp = new GradientPaint(
+                0, 0, F1_BLACK,
+                0, height, F1_RED.darker().darker());
+
+            g2d.setPaint(gp);
+            g2d.fillRect(0, 0, width, height);
+
+            // Add checkered pattern at bottom
+            g2d.setColor(new Color(40, 40, 40));
+            int squareSize = 20;
+            for (int x = 0; x < width; x += squareSize * 2) {
+                for (int y = height - 100; y < height; y += squareSize * 2) {
+                    g2d.fillRect(x, y, squareSize, squareSize);
+                    g2d.fillRect(x + squareSize, y + squareSize, squareSize, squareSize);
+                }
             }
+
+            // Add F1 car silhouette
+            g2d.setColor(F1_RED);
+            int carX = width - 400;
+            int carY = height - 200;
+            g2d.fillRoundRect(carX, carY, 200, 60, 20, 20);
+            g2d.setColor(Color.BLACK);
+            g2d.fillOval(carX + 20, carY + 40, 40, 40);
+            g2d.fillOval(carX + 140, carY + 40, 40, 40);
+
+            // Add some racing lines
+            g2d.setColor(new Color(255, 255, 255, 50));
+            g2d.setStroke(new BasicStroke(5));
+            g2d.drawLine(0, height - 50, width, height - 80);
+            g2d.drawLine(0, height - 30, width, height - 40);
+
+            // Add F1 text
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(new Font("Arial", Font.BOLD, 48));
+            g2d.drawString("F1 BUZZ WIRE CHALLENGE", width/2 - 300, 100);
+
+            g2d.dispose();
+            return img;
+
+        } catch (Exception e) {
+            System.out.println("Error in SVG loading: " + e.getMessage());
+            return null;
         }
-        
-        public void update() {
-            // Move particle from left to right
-            x += speed;
-        }
-        
-        public void draw(Graphics2D g2d) {
-            g2d.setColor(color);
-            // Draw a line instead of a circle for a racing feel
-            g2d.setStroke(new BasicStroke(size));
-            g2d.drawLine(x - 10, y, x + 10, y);
+    }
+
+    private Image createGradientBackground() {
+        // Create a gradient background as fallback
+        int width = 1200;
+        int height = 800;
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = img.createGraphics();
+
+        // Create gradient from dark to light
+        GradientPaint gp = new GradientPaint(
+            0, 0, F1_BLACK,
+            0, height, F1_RED.darker().darker());
+
+        g2d.setPaint(gp);
+        g2d.fillRect(0, 0, width, height);
+
+        // Add some racing-inspired elements
+        g2d.setColor(new Color(40, 40, 40));
+        // Draw checkered pattern at bottom
+        int squareSize = 20;
+        for (int x = 0; x < width; x += squareSize * 2) {
+            for (int y = height - 100; y < height; y += squareSize * 2) {
+                g2d.fillRect(x, y, squareSize, squareSize);
+                g2d.fillRect(x + squareSize, y + squareSize, squareSize, squareSize);
+            }
         }
+
+        g2d.dispose();
+        return img;
     }
 
     // Background panel class for F1 themed background
     private class JBackgroundPanel extends JPanel {
-        private Image backgroundImage;
-        private Timer animationTimer;
-        private List<RacingParticle> particles = new ArrayList<>();
-        private int animationTick = 0;
+        private volatile Image backgroundImage;
+        // Background scaled to the panel with the dark overlay already applied
+        private BufferedImage composite;
+        private Image compositeSource;
+        private final BackgroundAnimation animation = new BackgroundAnimation(PARTICLE_COUNT, 1200, 800);
+        private ActiveRenderer renderer;
         
         public JBackgroundPanel() {
             setOpaque(false);
-            // Try to load background image
-            try {
-                // First try to load from resources directory
-                // Fix the file paths to use absolute paths
-                File imageFile = new File("c:\\buzzWireGUI\\src\\resources\\f1_background.jpg");
-                File svgFile = new File("c:\\buzzWireGUI\\src\\resources\\f1_background.svg");
-                
-                if (imageFile.exists()) {
-                    backgroundImage = new ImageIcon(imageFile.getAbsolutePath()).getImage();
-                } else if (svgFile.exists()) {
-                    // Load SVG file
-                    try {
-                        backgroundImage = loadSVG(svgFile);
-                        if (backgroundImage == null) {
-                            createGradientBackground();
-                        }
-                    } catch (Exception e) {
-                        System.out.println("Error loading SVG: " + e.getMessage());
-                        createGradientBackground();
-                    }
-                } else {
-                    // Fallback to creating a gradient background
-                    createGradientBackground();
-                }
-            } catch (Exception e) {
-                System.out.println("Error loading background image: " + e.getMessage());
-                createGradientBackground();
-            }
+            perfHud.attach(this);
+            // Shows the placeholder until the shared background is ready
+            background.thenAccept(image -> {
+                backgroundImage = image;
+                repaint();
+            });
             
             // Initialize animation particles
             initializeAnimations();
         }
         
         private void initializeAnimations() {
-            // Create racing particles
-            Random random = new Random();
-            for (int i = 0; i < 30; i++) {
-                particles.add(new RacingParticle(
-                    random.nextInt(getWidth() > 0 ? getWidth() : 1200),
-                    random.nextInt(getHeight() > 0 ? getHeight() : 800),
-                    random.nextInt(5) + 1,
-                    random.nextInt(3) + 1
-                ));
+            if (ACTIVE_RENDERING) {
+                renderer = new ActiveRenderer(String.valueOf(++backgroundPanels), this, TARGET_FPS,
+                        new ActiveRenderer.Scene() {
+                            @Override
+                            public void update(int width, int height) {
+                                animation.update(width, height);
+                            }
+
+                            @Override
+                            public void paint(Graphics2D g2d, int width, int height) {
+                                g2d.drawImage(compositeBackground(width, height), 0, 0, null);
+                                animation.paint(g2d, width, height);
+                            }
+                        }, renderFrameTime, renderFrameInterval);
+                // Same showing and paused rules as the shared clock
+                animationClock.watch(this, renderer::setActive);
+                renderer.start();
+                return;
             }
-            
-            // Start animation timer (30 FPS)
-            animationTimer = new Timer(33, e -> {
-                animationTick++;
-                updateAnimations();
+            // Animate on the shared clock, which skips this panel while it is hidden
+            animationClock.register(this, () -> {
+                animation.update(getWidth(), getHeight());
                 repaint();
             });
-            animationTimer.start();
-        }
-        
-        private void updateAnimations() {
-            // Update particle positions
-            for (RacingParticle particle : particles) {
-                particle.update();
-                
-                // If particle goes off-screen, reset it
-                if (particle.x > getWidth()) {
-                    particle.x = -10;
-                    particle.y = new Random().nextInt(getHeight());
-                }
-            }
-        }
-        
-        private Image loadSVG(File svgFile) {
-            try {
-                // Create a simple renderer for the SVG
-                int width = 1280;
-                int height = 720;
-                BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-                Graphics2D g2d = img.createGraphics();
-                
-                // Set rendering hints for better quality
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                
-                // Create a fallback background in case SVG can't be rendered properly
-                g2d.setColor(F1_BLACK);
-                g2d.fillRect(0, 0, width, height);
-                
-                // Create a gradient background with F1 colors
-                GradientPaint gp = new GradientPaint(
-                    0, 0, F1_BLACK,
-                    0, height, F1_RED.darker().darker());
-                
-                g2d.setPaint(gp);
-                g2d.fillRect(0, 0, width, height);
-                
-                // Add checkered pattern at bottom
-                g2d.setColor(new Color(40, 40, 40));
-                int squareSize = 20;
-                for (int x = 0; x < width; x += squareSize * 2) {
-                    for (int y = height - 100; y < height; y += squareSize * 2) {
-                        g2d.fillRect(x, y, squareSize, squareSize);
-                        g2d.fillRect(x + squareSize, y + squareSize, squareSize, squareSize);
-                    }
-                }
-                
-                // Add F1 car silhouette
-                g2d.setColor(F1_RED);
-                int carX = width - 400;
-                int carY = height - 200;
-                g2d.fillRoundRect(carX, carY, 200, 60, 20, 20);
-                g2d.setColor(Color.BLACK);
-                g2d.fillOval(carX + 20, carY + 40, 40, 40);
-                g2d.fillOval(carX + 140, carY + 40, 40, 40);
-                
-                // Add some racing lines
-                g2d.setColor(new Color(255, 255, 255, 50));
-                g2d.setStroke(new BasicStroke(5));
-                g2d.drawLine(0, height - 50, width, height - 80);
-                g2d.drawLine(0, height - 30, width, height - 40);
-                
-                // Add F1 text
-                g2d.setColor(Color.WHITE);
-                g2d.setFont(new Font("Arial", Font.BOLD, 48));
-                g2d.drawString("F1 BUZZ WIRE CHALLENGE", width/2 - 300, 100);
-                
-                g2d.dispose();
-                return new ImageIcon(img).getImage();
-                
-            } catch (Exception e) {
-                System.out.println("Error in SVG loading: " + e.getMessage());
-                return null;
-            }
-        }
-        
-        private void createGradientBackground() {
-            // Create a gradient background as fallback
-            int width = 1200;
-            int height = 800;
-            BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2d = img.createGraphics();
-            
-            // Create gradient from dark to light
-            GradientPaint gp = new GradientPaint(
-                0, 0, F1_BLACK,
-                0, height, F1_RED.darker().darker());
-            
-            g2d.setPaint(gp);
-            g2d.fillRect(0, 0, width, height);
-            
-            // Add some racing-inspired elements
-            g2d.setColor(new Color(40, 40, 40));
-            // Draw checkered pattern at bottom
-            int squareSize = 20;
-            for (int x = 0; x < width; x += squareSize * 2) {
-                for (int y = height - 100; y < height; y += squareSize * 2) {
-                    g2d.fillRect(x, y, squareSize, squareSize);
-                    g2d.fillRect(x + squareSize, y + squareSize, squareSize, squareSize);
-                }
-            }
-            
-            g2d.dispose();
-            backgroundImage = new ImageIcon(img).getImage();
         }
         
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            if (backgroundImage != null) {
+            if (renderer != null) {
+                // The render thread has drawn the whole frame already
+                long start = System.nanoTime();
+                if (renderer.paintFrame(g)) {
+                    backgroundPaintTime.record(System.nanoTime() - start);
+                }
+            } else {
+                long start = System.nanoTime();
                 Graphics2D g2d = (Graphics2D) g.create();
-                // Draw the background image stretched to fill the panel
-                g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
-                
-                // Add a semi-transparent overlay for better text readability
-                g2d.setColor(new Color(0, 0, 0, 180));
-                g2d.fillRect(0, 0, getWidth(), getHeight());
+                // Static layers are copied in one go instead of scaled and blended every frame
+                g2d.drawImage(compositeBackground(getWidth(), getHeight()), 0, 0, null);
                 
-                // Draw animated racing stripes overlay
-                drawRacingStripesOverlay(g2d);
-                
-                // Draw all particles
-                for (RacingParticle particle : particles) {
-                    particle.draw(g2d);
-                }
+                // Draw animated racing stripes and particles
+                animation.paint(g2d, getWidth(), getHeight());
                 
                 g2d.dispose();
+                backgroundPaintTime.record(System.nanoTime() - start);
             }
         }
-        
-        private void drawRacingStripesOverlay(Graphics2D g2d) {
-            // Draw animated racing stripes
-            int stripeWidth = 40;
-            int stripeSpacing = 100;
-            int stripeOffset = animationTick % 100; // Moving effect
-            
-            // Set stripe color with transparency
-            g2d.setColor(new Color(F1_RED.getRed(), F1_RED.getGreen(), F1_RED.getBlue(), 30));
-            
-            // Draw diagonal racing stripes
-            for (int x = -getHeight(); x < getWidth() + getHeight(); x += stripeSpacing) {
-                Polygon stripe = new Polygon();
-                stripe.addPoint(x - stripeOffset, 0);
-                stripe.addPoint(x + stripeWidth - stripeOffset, 0);
-                stripe.addPoint(x + stripeWidth + getHeight() - stripeOffset, getHeight());
-                stripe.addPoint(x + getHeight() - stripeOffset, getHeight());
-                g2d.fillPolygon(stripe);
+
+        // The overlay goes over the labels and buttons, so after the children
+        @Override
+        public void paint(Graphics g) {
+            super.paint(g);
+            if (perfHud.isEnabled()) {
+                perfHud.paint(g);
             }
-            
-            // Draw checkered pattern at bottom with animation
-            int squareSize = 20;
-            int checkerOffset = (animationTick / 5) % (squareSize * 2);
-            g2d.setColor(new Color(255, 255, 255, 40));
-            
-            for (int x = -checkerOffset; x < getWidth(); x += squareSize * 2) {
-                for (int y = getHeight() - 100; y < getHeight(); y += squareSize * 2) {
-                    g2d.fillRect(x, y, squareSize, squareSize);
-                    g2d.fillRect(x + squareSize, y + squareSize, squareSize, squareSize);
+            if (!startupProbe.isFrameShown()) {
+                startupProbe.frameShown();
+                onFirstFrame();
+            }
+        }
+
+        // Rebuilt only when the panel changes size or the background arrives.
+        // Only ever used by one thread: the EDT, or the render thread in
+        // active rendering mode.
+        private BufferedImage compositeBackground(int panelWidth, int panelHeight) {
+            int width = Math.max(1, panelWidth);
+            int height = Math.max(1, panelHeight);
+            Image source = backgroundImage;
+            if (composite == null || composite.getWidth() != width || composite.getHeight() != height
+                    || compositeSource != source) {
+                // A compatible image matches the screen format, so Java2D can keep it in video memory
+                GraphicsConfiguration config = getGraphicsConfiguration();
+                composite = config != null
+                        ? config.createCompatibleImage(width, height, Transparency.OPAQUE)
+                        : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                compositeSource = source;
+                Graphics2D g2d = composite.createGraphics();
+                if (source != null) {
+                    // Draw the background image stretched to fill the panel
+                    g2d.drawImage(source, 0, 0, width, height, null);
+                } else {
+                    g2d.setColor(F1_BLACK); // Placeholder while the background is being built
+                    g2d.fillRect(0, 0, width, height);
                 }
+                // Add a semi-transparent overlay for better text readability
+                g2d.setColor(new Color(0, 0, 0, 180));
+                g2d.fillRect(0, 0, width, height);
+                g2d.dispose();
             }
+            return composite;
         }
     }
 
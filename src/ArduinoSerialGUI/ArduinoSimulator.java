@@ -0,0 +1,491 @@
+package ArduinoSerialGUI;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Plays a scenario script as the lines a buzz-wire rig would send, in the
+// same text protocol listenToSerial reads: a lives count, "Restart" or
+// "Reset Timer", each ending in CRLF. One step per line, # starts a comment:
+//
+//   seed 7                              - fixes the random choices
+//   restart, reset, lives 5             - one line, sent straight away
+//   wait 2s                             - silence
+//   race pro                            - a Restart, then buzzes counting down
+//   race lives=0 every=3s jitter=1s       to the lives left (0 crashes out)
+//   chatter 2000 10s [lives=7]          - a bad contact repeating a lives count
+//                                         2000 times a second for 10 seconds
+//   garbage 50 1m                       - lines of random bytes, some too long
+//   mix 500 1m                          - lives, commands and garbage at random
+//   repeat 3 ... end, repeat forever ... end
+//
+// Durations take ms, s, m or h. The race profiles are novice (crashes out
+// fast), steady and pro (slow and careful); any of their settings can be
+// overridden, e.g. "race pro every=5s".
+//
+// Events are generated one at a time as they are asked for, so a scenario
+// can repeat forever without building anything up in memory.
+final class ArduinoSimulator {
+
+    private static final long FOREVER = -1;
+    private static final int MAX_JUNK = 120; // Past the parser's 64 byte line limit
+    private static final long MIN_GAP_NANOS = 1_000_000;
+
+    private static final byte[] RESTART = "Restart\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESET_TIMER = "Reset Timer\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] LIVES = new byte[10][];
+
+    static {
+        for (int i = 0; i < LIVES.length; i++) {
+            LIVES[i] = new byte[] {(byte) ('0' + i), '\r', '\n'};
+        }
+    }
+
+    private enum Kind { RESTART, RESET, LIVES, WAIT, RACE, CHATTER, GARBAGE, MIX, REPEAT }
+
+    private static final class Step {
+        final Kind kind;
+        final int lives;
+        final long nanos;      // wait and burst length, or the mean gap in a race
+        final long jitterNanos;
+        final double rate;     // lines per second
+        final long repeats;
+        final List<Step> body;
+
+        Step(Kind kind, int lives, long nanos, long jitterNanos, double rate, long repeats, List<Step> body) {
+            this.kind = kind;
+            this.lives = lives;
+            this.nanos = nanos;
+            this.jitterNanos = jitterNanos;
+            this.rate = rate;
+            this.repeats = repeats;
+            this.body = body;
+        }
+
+        static Step simple(Kind kind, int lives, long nanos) {
+            return new Step(kind, lives, nanos, 0, 0, 0, null);
+        }
+
+        // Whether running this step moves the clock on, so a repeat forever
+        // around it cannot spin without end
+        boolean takesTime() {
+            switch (kind) {
+                case WAIT:
+                case CHATTER:
+                case GARBAGE:
+                case MIX:
+                    return nanos > 0;
+                case RACE:
+                    return lives < GameState.MAX_LIVES;
+                case REPEAT:
+                    return body.stream().anyMatch(Step::takesTime);
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static final class Frame {
+        final List<Step> steps;
+        int next;
+        long repeatsLeft;
+
+        Frame(List<Step> steps, long repeats) {
+            this.steps = steps;
+            this.repeatsLeft = repeats;
+        }
+    }
+
+    private final SplittableRandom random;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final byte[] junk = new byte[MAX_JUNK + 1];
+
+    // The step being played out one event at a time
+    private Step active;
+    private long activeStart;
+    private long activeCount;
+    private int raceLives;
+    private int lastLives = GameState.MAX_LIVES;
+
+    // The current event: what to send and how long after the start
+    private long cursorNanos;
+    private long dueNanos;
+    private byte[] eventBytes;
+    private int eventLength;
+    private long events;
+
+    private ArduinoSimulator(List<Step> script, long seed) {
+        this.random = new SplittableRandom(seed);
+        frames.push(new Frame(script, 1));
+    }
+
+    // The seed given here is overridden by a "seed" line in the script
+    static ArduinoSimulator load(File file, long seed) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return parse(reader, file.getName(), seed);
+        }
+    }
+
+    private static ArduinoSimulator parse(Reader reader, String source, long seed) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        Deque<List<Step>> blocks = new ArrayDeque<>();
+        Deque<Long> repeats = new ArrayDeque<>();
+        blocks.push(new ArrayList<>());
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            int hash = line.indexOf('#');
+            String text = (hash >= 0 ? line.substring(0, hash) : line).trim().toLowerCase(Locale.ROOT);
+            if (text.isEmpty()) {
+                continue;
+            }
+            String[] words = text.split("\\s+");
+            try {
+                switch (words[0]) {
+                    case "seed":
+                        seed = Long.parseLong(argument(words, 1));
+                        break;
+                    case "repeat":
+                        String count = argument(words, 1);
+                        long times = count.equals("forever") ? FOREVER : Long.parseLong(count);
+                        if (times < 0 && times != FOREVER) {
+                            throw new IllegalArgumentException("repeat count cannot be negative");
+                        }
+                        repeats.push(times);
+                        blocks.push(new ArrayList<>());
+                        break;
+                    case "end":
+                        if (repeats.isEmpty()) {
+                            throw new IllegalArgumentException("end without repeat");
+                        }
+                        List<Step> body = blocks.pop();
+                        Step repeat = new Step(Kind.REPEAT, 0, 0, 0, 0, repeats.pop(), body);
+                        if (repeat.repeats == FOREVER && !repeat.takesTime()) {
+                            throw new IllegalArgumentException("repeat forever needs a step that takes time");
+                        }
+                        blocks.peek().add(repeat);
+                        break;
+                    default:
+                        blocks.peek().add(parseStep(words));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException(source + " line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        if (!repeats.isEmpty()) {
+            throw new IOException(source + ": repeat without end");
+        }
+        return new ArduinoSimulator(blocks.pop(), seed);
+    }
+
+    private static Step parseStep(String[] words) {
+        switch (words[0]) {
+            case "restart":
+                return Step.simple(Kind.RESTART, 0, 0);
+            case "reset":
+                return Step.simple(Kind.RESET, 0, 0);
+            case "lives":
+                return Step.simple(Kind.LIVES, lives(argument(words, 1)), 0);
+            case "wait":
+                return Step.simple(Kind.WAIT, 0, duration(argument(words, 1)));
+            case "race":
+                return parseRace(words);
+            case "chatter":
+                int lives = -1;
+                for (int i = 3; i < words.length; i++) {
+                    lives = lives(option(words[i], "lives"));
+                }
+                return burst(Kind.CHATTER, words, lives);
+            case "garbage":
+                return burst(Kind.GARBAGE, words, 0);
+            case "mix":
+                return burst(Kind.MIX, words, 0);
+            default:
+                throw new IllegalArgumentException("unknown step " + words[0]);
+        }
+    }
+
+    private static Step parseRace(String[] words) {
+        int lives = 4;
+        long every = 10_000_000_000L;
+        long jitter = 5_000_000_000L;
+        int first = 1;
+        if (words.length > 1 && !words[1].contains("=")) {
+            switch (words[1]) {
+                case "novice":
+                    lives = 0;
+                    every = 3_000_000_000L;
+                    jitter = 2_000_000_000L;
+                    break;
+                case "steady":
+                    break;
+                case "pro":
+                    lives = 8;
+                    every = 25_000_000_000L;
+                    jitter = 10_000_000_000L;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown profile " + words[1]);
+            }
+            first = 2;
+        }
+        for (int i = first; i < words.length; i++) {
+            String word = words[i];
+            if (word.startsWith("lives=")) {
+                lives = lives(option(word, "lives"));
+            } else if (word.startsWith("every=")) {
+                every = duration(option(word, "every"));
+            } else {
+                jitter = duration(option(word, "jitter"));
+            }
+        }
+        if (lives > GameState.MAX_LIVES) {
+            throw new IllegalArgumentException("a race cannot end with more than " + GameState.MAX_LIVES + " lives");
+        }
+        return new Step(Kind.RACE, lives, every, Math.min(jitter, every), 0, 0, null);
+    }
+
+    private static Step burst(Kind kind, String[] words, int lives) {
+        double rate = Double.parseDouble(argument(words, 1));
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        return new Step(kind, lives, duration(argument(words, 2)), 0, rate, 0, null);
+    }
+
+    private static String argument(String[] words, int index) {
+        if (index >= words.length) {
+            throw new IllegalArgumentException(words[0] + " needs more arguments");
+        }
+        return words[index];
+    }
+
+    private static String option(String word, String name) {
+        if (!word.startsWith(name + "=")) {
+            throw new IllegalArgumentException("expected " + name + "=..., got " + word);
+        }
+        return word.substring(name.length() + 1);
+    }
+
+    private static int lives(String text) {
+        int lives = Integer.parseInt(text);
+        if (lives < 0 || lives > 9) {
+            throw new IllegalArgumentException("lives must be 0 to 9");
+        }
+        return lives;
+    }
+
+    static long duration(String text) {
+        long unit;
+        String number;
+        if (text.endsWith("ms")) {
+            unit = 1_000_000L;
+            number = text.substring(0, text.length() - 2);
+        } else if (text.endsWith("s")) {
+            unit = 1_000_000_000L;
+            number = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("m")) {
+            unit = 60_000_000_000L;
+            number = text.substring(0, text.length() - 1);
+        } else if (text.endsWith("h")) {
+            unit = 3_600_000_000_000L;
+            number = text.substring(0, text.length() - 1);
+        } else {
+            throw new IllegalArgumentException("duration needs ms, s, m or h: " + text);
+        }
+        return (long) (Double.parseDouble(number) * unit);
+    }
+
+    // Moves to the next event. Returns false once the script has ended.
+    boolean next() {
+        while (true) {
+            if (active != null) {
+                if (nextInActive()) {
+                    events++;
+                    return true;
+                }
+                active = null;
+            }
+            Step step = nextStep();
+            if (step == null) {
+                return false;
+            }
+            switch (step.kind) {
+                case RESTART:
+                    emit(cursorNanos, RESTART, RESTART.length);
+                    events++;
+                    return true;
+                case RESET:
+                    emit(cursorNanos, RESET_TIMER, RESET_TIMER.length);
+                    events++;
+                    return true;
+                case LIVES:
+                    lastLives = step.lives;
+                    emit(cursorNanos, LIVES[step.lives], LIVES[step.lives].length);
+                    events++;
+                    return true;
+                case WAIT:
+                    cursorNanos += step.nanos;
+                    break;
+                case REPEAT:
+                    if (step.repeats != 0) {
+                        frames.push(new Frame(step.body, step.repeats));
+                    }
+                    break;
+                default:
+                    active = step;
+                    activeStart = cursorNanos;
+                    activeCount = 0;
+                    raceLives = GameState.MAX_LIVES + 1;
+            }
+        }
+    }
+
+    private Step nextStep() {
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peek();
+            if (frame.next < frame.steps.size()) {
+                return frame.steps.get(frame.next++);
+            }
+            if (frame.repeatsLeft == FOREVER || --frame.repeatsLeft > 0) {
+                frame.next = 0;
+            } else {
+                frames.pop();
+            }
+        }
+        return null;
+    }
+
+    private boolean nextInActive() {
+        Step step = active;
+        if (step.kind == Kind.RACE) {
+            if (raceLives > GameState.MAX_LIVES) {
+                raceLives = GameState.MAX_LIVES;
+                emit(cursorNanos, RESTART, RESTART.length);
+                return true;
+            }
+            if (raceLives <= step.lives) {
+                return false;
+            }
+            long gap = step.nanos + (step.jitterNanos > 0
+                    ? random.nextLong(-step.jitterNanos, step.jitterNanos + 1) : 0);
+            cursorNanos += Math.max(MIN_GAP_NANOS, gap);
+            raceLives--;
+            lastLives = raceLives;
+            emit(cursorNanos, LIVES[raceLives], LIVES[raceLives].length);
+            return true;
+        }
+
+        // Bursts: evenly spaced at the given rate until the time is up
+        long offset = (long) (activeCount * (1_000_000_000.0 / step.rate));
+        if (offset >= step.nanos) {
+            cursorNanos = activeStart + step.nanos;
+            return false;
+        }
+        activeCount++;
+        long due = activeStart + offset;
+        switch (step.kind) {
+            case CHATTER:
+                int lives = step.lives >= 0 ? step.lives : lastLives;
+                emit(due, LIVES[lives], LIVES[lives].length);
+                break;
+            case GARBAGE:
+                emitJunk(due);
+                break;
+            default:
+                int pick = random.nextInt(10);
+                if (pick < 7) {
+                    lastLives = random.nextInt(LIVES.length);
+                    emit(due, LIVES[lastLives], LIVES[lastLives].length);
+                } else if (pick == 7) {
+                    emit(due, RESTART, RESTART.length);
+                } else if (pick == 8) {
+                    emit(due, RESET_TIMER, RESET_TIMER.length);
+                } else {
+                    emitJunk(due);
+                }
+        }
+        return true;
+    }
+
+    // Random bytes ending in one newline, so every event is exactly one line
+    // for the parser. Some are longer than any real line.
+    private void emitJunk(long due) {
+        int length = 1 + random.nextInt(MAX_JUNK);
+        for (int i = 0; i < length; i++) {
+            byte b;
+            do {
+                b = (byte) random.nextInt(256);
+            } while (b == '\r' || b == '\n');
+            junk[i] = b;
+        }
+        junk[length] = '\n';
+        emit(due, junk, length + 1);
+    }
+
+    private void emit(long due, byte[] bytes, int length) {
+        dueNanos = due;
+        eventBytes = bytes;
+        eventLength = length;
+    }
+
+    // When the current event is due, in nanoseconds after the start
+    long dueNanos() {
+        return dueNanos;
+    }
+
+    // The current event's bytes; only valid until the next call to next()
+    byte[] eventBytes() {
+        return eventBytes;
+    }
+
+    int eventLength() {
+        return eventLength;
+    }
+
+    long getEvents() {
+        return events;
+    }
+
+    // Writes the scenario in real time to a file, a named pipe or stdout, for
+    // feeding the application through -Dbuzzwire.port=pipe:... or a pty:
+    //   ArduinoSimulator scenario.txt /tmp/buzz
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ArduinoSimulator scenario.txt [output|-]");
+            return;
+        }
+        ArduinoSimulator simulator = load(new File(args[0]), System.nanoTime());
+        boolean toStdout = args.length < 2 || args[1].equals("-");
+        try (OutputStream out = toStdout ? System.out : new FileOutputStream(args[1])) {
+            long start = System.nanoTime();
+            while (simulator.next()) {
+                long due = start + simulator.dueNanos();
+                if (due - System.nanoTime() > 0) {
+                    out.flush();
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                out.write(simulator.eventBytes(), 0, simulator.eventLength());
+            }
+        }
+        if (!toStdout) {
+            System.out.println("Sent " + simulator.getEvents() + " lines");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ArduinoSerialGUI;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+// Moving layers of the F1 background: diagonal racing stripes, a checkered
+// strip along the bottom and streaks racing from left to right.
+//
+// Nothing is filled with a translucent colour while animating. The stripes
+// and checkers repeat every few pixels, so each is drawn once per size into
+// an image that is copied in at a moving offset, and every kind of streak is
+// a tiny ready-made image. Streak state is kept in plain int arrays, sorted
+// by kind, so a frame allocates nothing and thousands of streaks stay cheap.
+final class BackgroundAnimation {
+
+    private static final int STRIPE_WIDTH = 40;
+    private static final int STRIPE_SPACING = 100;
+    private static final int SQUARE_SIZE = 20;
+    private static final int CHECKER_HEIGHT = 100;
+    private static final Color STRIPE_COLOR = new Color(220, 0, 0, 30);
+    private static final Color CHECKER_COLOR = new Color(255, 255, 255, 40);
+
+    // Streaks are 20 px long and 1 to 3 px thick, in F1 red or white with
+    // one of a few transparency levels
+    private static final int STREAK_LENGTH = 20;
+    private static final int MAX_THICKNESS = 3;
+    private static final int ALPHA_LEVELS = 4;
+    private static final int STYLES = 2 * ALPHA_LEVELS * MAX_THICKNESS;
+    private static final BufferedImage[] STREAKS = new BufferedImage[STYLES];
+
+    static {
+        for (int s = 0; s < STYLES; s++) {
+            int colorIndex = s / MAX_THICKNESS;
+            int level = colorIndex % ALPHA_LEVELS;
+            int step = 100 * level / ALPHA_LEVELS + 12;
+            Color color = colorIndex < ALPHA_LEVELS
+                    ? new Color(220, 0, 0, 100 + step)
+                    : new Color(255, 255, 255, 50 + step);
+            int thickness = s % MAX_THICKNESS + 1;
+            // A thick horizontal line with square caps is just a rectangle
+            STREAKS[s] = filledImage(STREAK_LENGTH + thickness, thickness, color);
+        }
+    }
+
+    private final int[] x;
+    private final int[] y;
+    private final int[] speed;
+    // Streaks of style s are stored at styleStart[s] up to styleStart[s + 1]
+    private final int[] styleStart = new int[STYLES + 1];
+    private final SplittableRandom random = new SplittableRandom();
+    private int tick;
+    // One period wider than the area so they can slide left by up to a period
+    private BufferedImage stripes;
+    private BufferedImage checkers;
+
+    // Streaks start spread over a width x height area until the first update
+    BackgroundAnimation(int streaks, int width, int height) {
+        x = new int[streaks];
+        y = new int[streaks];
+        speed = new int[streaks];
+
+        int[] styleCount = new int[STYLES];
+        for (int i = 0; i < streaks; i++) {
+            styleCount[random.nextInt(STYLES)]++;
+        }
+        for (int s = 0; s < STYLES; s++) {
+            styleStart[s + 1] = styleStart[s] + styleCount[s];
+        }
+        for (int i = 0; i < streaks; i++) {
+            x[i] = random.nextInt(width);
+            y[i] = random.nextInt(height);
+            speed[i] = random.nextInt(5) + 1;
+        }
+    }
+
+    // Advances one frame for an area of the given size
+    void update(int width, int height) {
+        tick++;
+        for (int i = 0; i < x.length; i++) {
+            x[i] += speed[i];
+            // A streak that leaves on the right comes back on the left at a new height
+            if (x[i] > width) {
+                x[i] = -10;
+                y[i] = random.nextInt(Math.max(1, height));
+            }
+        }
+    }
+
+    void paint(Graphics2D g2d, int width, int height) {
+        // A panel that is not laid out yet has nothing to show, and layers
+        // built for a made-up size would never match and be rebuilt every frame
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (stripes == null || stripes.getWidth() != width + STRIPE_SPACING || stripes.getHeight() != height) {
+            buildLayers(width, height);
+        }
+        g2d.drawImage(stripes, -(tick % STRIPE_SPACING), 0, null);
+        g2d.drawImage(checkers, -((tick / 5) % (SQUARE_SIZE * 2)), height - CHECKER_HEIGHT, null);
+
+        for (int s = 0; s < STYLES; s++) {
+            BufferedImage streak = STREAKS[s];
+            int half = (s % MAX_THICKNESS + 1) / 2;
+            for (int i = styleStart[s]; i < styleStart[s + 1]; i++) {
+                g2d.drawImage(streak, x[i] - STREAK_LENGTH / 2 - half, y[i] - half, null);
+            }
+        }
+    }
+
+    private void buildLayers(int width, int height) {
+        stripes = new BufferedImage(width + STRIPE_SPACING, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = stripes.createGraphics();
+        g2d.setColor(STRIPE_COLOR);
+        // Diagonal racing stripes
+        for (int left = -height; left < width + height + STRIPE_SPACING; left += STRIPE_SPACING) {
+            g2d.fillPolygon(new int[]{left, left + STRIPE_WIDTH, left + STRIPE_WIDTH + height, left + height},
+                    new int[]{0, 0, height, height}, 4);
+        }
+        g2d.dispose();
+
+        checkers = new BufferedImage(width + SQUARE_SIZE * 2, CHECKER_HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        g2d = checkers.createGraphics();
+        g2d.setColor(CHECKER_COLOR);
+        // Checkered pattern at the bottom
+        for (int left = 0; left < checkers.getWidth(); left += SQUARE_SIZE * 2) {
+            for (int top = 0; top < CHECKER_HEIGHT; top += SQUARE_SIZE * 2) {
+                g2d.fillRect(left, top, SQUARE_SIZE, SQUARE_SIZE);
+                g2d.fillRect(left + SQUARE_SIZE, top + SQUARE_SIZE, SQUARE_SIZE, SQUARE_SIZE);
+            }
+        }
+        g2d.dispose();
+    }
+
+    private static BufferedImage filledImage(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.setColor(color);
+        g2d.fillRect(0, 0, width, height);
+        g2d.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,166 @@
+package ArduinoSerialGUI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Every driver who has raced, with their aggregate stats, sorted by name
+// ignoring case. Sorting makes a name prefix a contiguous range of the map,
+// so the drivers matching what has been typed into the search box are found
+// in O(log d) plus the number of matches, without looking at other drivers.
+final class DriverIndex {
+
+    // Above this share of the board it is cheaper to walk the ranked index
+    // once than to merge the matching drivers' runs and sort them
+    private static final int SCAN_FRACTION = 3;
+
+    // Keyed by folded name, then the exact name, so "anna" and "Anna" stay apart
+    private final TreeMap<String, DriverStats> byKey = new TreeMap<>();
+    private final Map<String, DriverStats> byName = new HashMap<>();
+
+    // Counts a run in the driver's stats without putting it on the board
+    synchronized void recordRun(String player, long timeMillis, int livesLeft) {
+        driver(player).record(timeMillis, livesLeft);
+    }
+
+    // A new run: counted in the stats and on the board
+    synchronized void add(PlayerScore score) {
+        DriverStats driver = driver(score.player);
+        driver.record(score.timeMillis, score.livesLeft);
+        List<PlayerScore> runs = driver.boardRuns;
+        // After any run it ties with, the way the board orders ties
+        int low = 0;
+        int high = runs.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (PlayerScore.RANKING.compare(runs.get(mid), score) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        runs.add(low, score);
+    }
+
+    // The run dropped off the bottom of a board with a capacity
+    synchronized void removeFromBoard(PlayerScore score) {
+        DriverStats driver = byName.get(score.player);
+        if (driver != null) {
+            // It ranks last, so it is normally the driver's last run
+            for (int i = driver.boardRuns.size() - 1; i >= 0; i--) {
+                if (driver.boardRuns.get(i) == score) {
+                    driver.boardRuns.remove(i);
+                    break;
+                }
+            }
+        }
+    }
+
+    // Replaces everything with the given runs, all of which are on the board
+    synchronized void load(List<PlayerScore> scores) {
+        clear();
+        for (PlayerScore score : scores) {
+            DriverStats driver = driver(score.player);
+            driver.record(score.timeMillis, score.livesLeft);
+            driver.boardRuns.add(score);
+        }
+        sortBoardRuns();
+    }
+
+    // Replaces the board runs only; the stats come from recordRun
+    synchronized void loadBoard(List<PlayerScore> scores) {
+        for (DriverStats driver : byKey.values()) {
+            driver.boardRuns.clear();
+        }
+        for (PlayerScore score : scores) {
+            driver(score.player).boardRuns.add(score);
+        }
+        sortBoardRuns();
+    }
+
+    // A copy, so it stays as it was when asked for
+    synchronized DriverStats get(String player) {
+        DriverStats driver = byName.get(player);
+        return driver != null ? driver.copy() : null;
+    }
+
+    synchronized int size() {
+        return byName.size();
+    }
+
+    // Copies of the drivers whose name starts with the prefix, ignoring case, in name order
+    synchronized List<DriverStats> search(String prefix) {
+        List<DriverStats> drivers = new ArrayList<>();
+        for (DriverStats driver : matching(prefix)) {
+            drivers.add(driver.copy());
+        }
+        return drivers;
+    }
+
+    // The board runs of every matching driver, best first
+    synchronized List<PlayerScore> boardRuns(String prefix, LeaderboardIndex index) {
+        Collection<DriverStats> drivers = matching(prefix);
+        int total = 0;
+        for (DriverStats driver : drivers) {
+            total += driver.boardRuns.size();
+        }
+        if (total == 0) {
+            return Collections.emptyList();
+        }
+
+        if (total > index.size() / SCAN_FRACTION) {
+            Set<String> names = new HashSet<>();
+            for (DriverStats driver : drivers) {
+                names.add(driver.getPlayer());
+            }
+            return index.filter(score -> names.contains(score.player));
+        }
+
+        List<PlayerScore> runs = new ArrayList<>(total);
+        for (DriverStats driver : drivers) {
+            runs.addAll(driver.boardRuns);
+        }
+        runs.sort(PlayerScore.RANKING); // Already sorted per driver, so this mostly merges
+        return runs;
+    }
+
+    synchronized void clear() {
+        byKey.clear();
+        byName.clear();
+    }
+
+    private void sortBoardRuns() {
+        for (DriverStats driver : byKey.values()) {
+            driver.boardRuns.sort(PlayerScore.RANKING); // Stable, ties keep their saved order
+        }
+    }
+
+    private Collection<DriverStats> matching(String prefix) {
+        String folded = fold(prefix);
+        if (folded.isEmpty()) {
+            return byKey.values();
+        }
+        return byKey.subMap(folded, true, folded + Character.MAX_VALUE, false).values();
+    }
+
+    private DriverStats driver(String player) {
+        DriverStats driver = byName.get(player);
+        if (driver == null) {
+            driver = new DriverStats(player);
+            byName.put(player, driver);
+            byKey.put(fold(player) + '\0' + player, driver);
+        }
+        return driver;
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
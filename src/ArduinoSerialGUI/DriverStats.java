@@ -0,0 +1,97 @@
+package ArduinoSerialGUI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Running totals for one driver, updated as each run is saved so nothing has
+// to be rescanned to show them. Also holds the driver's runs that are on the
+// board, best first, for the leaderboard search.
+//
+// Only DriverIndex changes these, under its lock, and it hands out copies
+// taken under the same lock. A search on another thread therefore never sees
+// half of a save, such as the new run count with the old best time.
+final class DriverStats {
+
+    private final String player;
+    private int runs;
+    private long totalTimeMillis;
+    private long bestTimeMillis;
+    private int bestLives = -1;
+    // livesHistogram[n] counts the runs that finished with n lives left
+    private final int[] livesHistogram = new int[GameState.MAX_LIVES + 1];
+    final List<PlayerScore> boardRuns;
+
+    DriverStats(String player) {
+        this.player = player;
+        this.boardRuns = new ArrayList<>(2);
+    }
+
+    // The totals as they are now, without the board runs
+    private DriverStats(DriverStats source) {
+        player = source.player;
+        runs = source.runs;
+        totalTimeMillis = source.totalTimeMillis;
+        bestTimeMillis = source.bestTimeMillis;
+        bestLives = source.bestLives;
+        System.arraycopy(source.livesHistogram, 0, livesHistogram, 0, livesHistogram.length);
+        boardRuns = List.of();
+    }
+
+    DriverStats copy() {
+        return new DriverStats(this);
+    }
+
+    void record(long timeMillis, int livesLeft) {
+        runs++;
+        totalTimeMillis += timeMillis;
+        if (livesLeft > bestLives || (livesLeft == bestLives && timeMillis < bestTimeMillis)) {
+            bestLives = livesLeft;
+            bestTimeMillis = timeMillis;
+        }
+        livesHistogram[Math.max(0, Math.min(GameState.MAX_LIVES, livesLeft))]++;
+    }
+
+    String getPlayer() {
+        return player;
+    }
+
+    int getRuns() {
+        return runs;
+    }
+
+    long getBestTimeMillis() {
+        return bestTimeMillis;
+    }
+
+    int getBestLives() {
+        return bestLives;
+    }
+
+    long getMeanTimeMillis() {
+        return runs == 0 ? 0 : totalTimeMillis / runs;
+    }
+
+    int[] getLivesHistogram() {
+        return livesHistogram.clone();
+    }
+
+    // One line for the leaderboard panel, e.g.
+    // "ANNA: 12 runs, best 1:02.345 (7 lives), mean 1:30.120, lives left 9x1 7x4 0x7"
+    String summary() {
+        StringBuilder text = new StringBuilder(player).append(": ").append(runs)
+                .append(runs == 1 ? " run" : " runs");
+        if (runs == 0) {
+            return text.toString();
+        }
+        text.append(", best ").append(PlayerScore.formatRaceTime(bestTimeMillis))
+                .append(" (").append(bestLives).append(bestLives == 1 ? " life)" : " lives)")
+                .append(", mean ").append(PlayerScore.formatRaceTime(getMeanTimeMillis()))
+                .append(", lives left");
+        for (int lives = livesHistogram.length - 1; lives >= 0; lives--) {
+            if (livesHistogram[lives] > 0) {
+                text.append(' ').append(lives).append('x').append(livesHistogram[lives]);
+            }
+        }
+        return text.toString();
+    }
+}
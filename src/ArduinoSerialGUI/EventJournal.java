@@ -0,0 +1,174 @@
+package ArduinoSerialGUI;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Append-only binary log of everything that happens at the stations.
+// Callers only drop the event into a bounded queue; a single writer thread
+// encodes whole batches into one buffer and appends them to the file, so the
+// serial thread and the EDT never wait on the disk.
+//
+// File layout: the int MAGIC, then records of
+//   byte type, byte station, long nanos, int value
+// followed for OPENED by long epochMillis, and for SCORE by
+//   long timeMillis, short nameLength, name as UTF-8
+final class EventJournal implements Closeable {
+
+    static final int MAGIC = 0x42574a31; // "BWJ1"
+
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_NAME_BYTES = 1024;
+    private static final JournalEvent END = JournalEvent.of(JournalEvent.Type.OPENED, -1, 0, 0);
+
+    private final File file;
+    private final FileChannel channel;
+    private final BlockingQueue<JournalEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private EventJournal(File file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+        if (channel == null) {
+            writer = null;
+            closed = true;
+            return;
+        }
+        writer = new Thread(this::writeLoop, "event-journal");
+        writer.setDaemon(true);
+        writer.start();
+        append(new JournalEvent(JournalEvent.Type.OPENED, 0, System.nanoTime(), 0, System.currentTimeMillis(), null));
+    }
+
+    static EventJournal open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+            header.flip();
+            channel.write(header);
+        }
+        return new EventJournal(file, channel);
+    }
+
+    // Journal that accepts and ignores everything
+    static EventJournal disabled() {
+        return new EventJournal(null, null);
+    }
+
+    void append(JournalEvent event) {
+        if (closed || !queue.offer(event)) {
+            if (channel != null) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    void append(JournalEvent.Type type, int station, long nanos, int value) {
+        if (!closed) {
+            append(JournalEvent.of(type, station, nanos, value));
+        }
+    }
+
+    long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    private void writeLoop() {
+        List<JournalEvent> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            boolean running = true;
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (JournalEvent event : batch) {
+                    if (event == END) {
+                        running = false;
+                        break;
+                    }
+                    encode(event);
+                }
+                writeBuffer();
+                batch.clear();
+            }
+            channel.force(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            closed = true;
+            System.out.println("Event journal stopped: " + e.getMessage());
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Error closing event journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private void encode(JournalEvent event) throws IOException {
+        byte[] name = null;
+        int size = 14;
+        if (event.type() == JournalEvent.Type.OPENED) {
+            size += 8;
+        } else if (event.type() == JournalEvent.Type.SCORE) {
+            name = LeaderboardStore.truncateUtf8(event.name().getBytes(StandardCharsets.UTF_8), MAX_NAME_BYTES);
+            size += 10 + name.length;
+        }
+        if (buffer.remaining() < size) {
+            writeBuffer();
+        }
+
+        buffer.put((byte) event.type().ordinal());
+        buffer.put((byte) event.station());
+        buffer.putLong(event.nanos());
+        buffer.putInt(event.value());
+        if (event.type() == JournalEvent.Type.OPENED) {
+            buffer.putLong(event.timeMillis());
+        } else if (name != null) {
+            buffer.putLong(event.timeMillis());
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Writes everything still queued and closes the file
+    @Override
+    public void close() {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
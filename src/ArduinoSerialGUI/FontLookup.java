@@ -0,0 +1,90 @@
+package ArduinoSerialGUI;
+
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+// Finds an installed font family that looks like the F1 style ("Formula",
+// "Racing" or "F1" in the name). Only family names are listed, which does
+// not open every font file the way getAllFonts() does, and the answer is
+// kept in a small cache file so later launches only check that the family
+// is still installed. refresh() looks again in the background and updates
+// the cache for the next launch.
+final class FontLookup {
+
+    private static final String[] KEYWORDS = {"Formula", "Racing", "F1"};
+    private static final String NONE = "-";
+
+    private final File cacheFile;
+    private volatile boolean scanned;
+
+    FontLookup(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    // The family to use, or null for the default fonts
+    String find() {
+        String cached = readCache();
+        if (cached != null) {
+            if (cached.equals(NONE)) {
+                return null;
+            }
+            // An unknown family comes back as the logical "Dialog" font
+            if (new Font(cached, Font.PLAIN, 16).getFamily().equals(cached)) {
+                return cached;
+            }
+        }
+        return scan();
+    }
+
+    // Lists the families again and rewrites the cache if the answer changed;
+    // nothing to do if find() already had to list them
+    void refresh() {
+        if (scanned) {
+            return;
+        }
+        String cached = readCache();
+        String family = search();
+        if (!(family == null ? NONE : family).equals(cached)) {
+            writeCache(family);
+        }
+    }
+
+    private String scan() {
+        scanned = true;
+        String family = search();
+        writeCache(family);
+        return family;
+    }
+
+    private static String search() {
+        for (String family : GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames()) {
+            for (String keyword : KEYWORDS) {
+                if (family.contains(keyword)) {
+                    return family;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String readCache() {
+        try {
+            String value = new String(Files.readAllBytes(cacheFile.toPath()), StandardCharsets.UTF_8).trim();
+            return value.isEmpty() ? null : value;
+        } catch (IOException e) {
+            return null; // First launch
+        }
+    }
+
+    private void writeCache(String family) {
+        try {
+            Files.write(cacheFile.toPath(), ((family == null ? NONE : family) + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Font cache not saved: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ArduinoSerialGUI;
+
+// Snapshot of one station's game. Instances never change; a StationEngine
+// publishes them through an AtomicReference and moves between them with
+// compare-and-set, so the serial thread and the EDT always see a consistent
+// state and a transition such as game over can only happen once.
+//
+// Clock values are System.nanoTime() stamps. While the clock runs,
+// runEndNanos is meaningless and the elapsed time is measured against now.
+record GameState(int attempts, boolean gameOver, boolean clockRunning, long runStartNanos, long runEndNanos) {
+
+    static final int MAX_LIVES = 9;
+
+    // Full lives with the clock stopped, until the station starts it
+    static GameState initial(long nowNanos) {
+        return new GameState(MAX_LIVES, false, false, nowNanos, nowNanos);
+    }
+
+    // START button or "Restart" from the rig: full lives and a fresh clock
+    GameState restart(long nowNanos) {
+        return new GameState(MAX_LIVES, false, true, nowNanos, nowNanos);
+    }
+
+    // "Reset Timer": fresh clock, lives are left alone unless the last game
+    // used them all up, in which case the new one gets full lives
+    GameState resetTimer(long nowNanos) {
+        return new GameState(attempts > 0 ? attempts : MAX_LIVES, false, true, nowNanos, nowNanos);
+    }
+
+    // Lives count reported by the rig; reaching zero ends the game
+    GameState buzz(int lives, long nowNanos) {
+        if (gameOver) {
+            return this;
+        }
+        if (lives > 0) {
+            return new GameState(lives, false, clockRunning, runStartNanos, runEndNanos);
+        }
+        return new GameState(lives, true, false, runStartNanos, clockRunning ? nowNanos : runEndNanos);
+    }
+
+    // STOP button: freezes the clock but the game carries on
+    GameState stopClock(long nowNanos) {
+        if (!clockRunning) {
+            return this;
+        }
+        return new GameState(attempts, gameOver, false, runStartNanos, nowNanos);
+    }
+
+    // FINISH button or time limit
+    GameState finish(long nowNanos) {
+        if (gameOver) {
+            return this;
+        }
+        return new GameState(attempts, true, false, runStartNanos, clockRunning ? nowNanos : runEndNanos);
+    }
+
+    long elapsedMillis(long nowNanos) {
+        long end = clockRunning ? nowNanos : runEndNanos;
+        return Math.max(0, (end - runStartNanos) / 1_000_000);
+    }
+}
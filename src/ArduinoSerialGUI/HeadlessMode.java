@@ -0,0 +1,296 @@
+package ArduinoSerialGUI;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs the stations and the leaderboard with no window at all, for installs
+// that are just an Arduino and an LED scoreboard. Nothing here touches AWT,
+// so it starts quickly and fits in a small heap.
+//
+// Every state change is written as one line to stdout, and to any client of
+// the loopback port given with -Dbuzzwire.statePort:
+//   STATE station=1 lives=7 clock=running time=12345 over=false
+//   FINISHED station=1 time=95321 lives=3
+//   SAVED station=1 rank=4 time=95321 lives=3 driver=Max
+//   TOP rank=1 time=61002 lives=9 driver=Lena
+//   STATUS station=1 message=Failed to open port
+//   ERROR message=Unknown command: foo
+// Times are milliseconds; with clock=running the time keeps counting from
+// the moment the line was written.
+//
+// Commands are read one per line from stdin and from the socket clients:
+//   start N, stop N, finish N, reset N   - the station buttons
+//   save N NAME                          - saves station N's finished race
+//   status                               - repeats every station's STATE
+//   top [K]                              - the best K scores, 10 by default
+final class HeadlessMode implements StationEngine.Listener {
+
+    private static final int TICK_MS = 100;
+    private static final int OUTPUT_CAPACITY = 4096;
+    private static final int DEFAULT_TOP = 10;
+
+    private final List<StationEngine> stations;
+    private final EventJournal journal;
+    private final Leaderboard leaderboard;
+    // Commands and the time limit run here, one at a time
+    private final ScheduledExecutorService engineThread = Executors.newSingleThreadScheduledExecutor(
+            r -> new Thread(r, "engine"));
+    // Serial threads only drop lines in here; one thread does the writing,
+    // so a slow client can never hold up a rig
+    private final BlockingQueue<String> output = new ArrayBlockingQueue<>(OUTPUT_CAPACITY);
+    private final List<Writer> clients = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedLines = new AtomicLong();
+    private final StartupProbe startupProbe = new StartupProbe(false);
+    // The finished race each station last saved, so it is only saved once
+    private final GameState[] savedRaces;
+
+    HeadlessMode(List<SerialTransport> transports) {
+        journal = StationEngine.openJournal(System.getProperty("buzzwire.journal", "events.journal"));
+        stations = StationEngine.createAll(transports, journal, this);
+        savedRaces = new GameState[stations.size()];
+        leaderboard = new Leaderboard(new File("leaderboard.csv"), new File("leaderboard.bin"),
+                Integer.getInteger("buzzwire.topK", 0), System.getProperty("buzzwire.scoreSync", "row"),
+                message -> emit("ERROR message=" + message));
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        new HeadlessMode(StationEngine.parseTransports(System.getProperty("buzzwire.port", "COM6"))).start();
+    }
+
+    void start() {
+        try {
+            leaderboard.load();
+        } catch (IOException e) {
+            System.out.println("Error loading leaderboard: " + e.getMessage());
+        }
+
+        Thread writer = new Thread(this::writeLoop, "state-out");
+        writer.setDaemon(true);
+        writer.start();
+
+        int port = Integer.getInteger("buzzwire.statePort", 0);
+        if (port > 0) {
+            try {
+                ServerSocket server = new ServerSocket(port, 8, InetAddress.getLoopbackAddress());
+                startDaemon(() -> acceptLoop(server), "state-server");
+                System.out.println("State on " + server.getLocalSocketAddress());
+            } catch (IOException e) {
+                System.out.println("State port " + port + " not available: " + e.getMessage());
+            }
+        }
+
+        // Write whatever is still queued before the process goes away
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            journal.close();
+            leaderboard.close();
+            System.out.println(leaderboard.getWriteLatency().summary());
+            if (droppedLines.get() > 0) {
+                System.out.println("State lines dropped: " + droppedLines.get());
+            }
+        }));
+
+        Metrics metrics = new Metrics();
+        metrics.addStations(stations, journal);
+        metrics.counter("Headless", "state_lines_dropped_total", "State lines dropped for slow output",
+                droppedLines::get);
+        metrics.addLeaderboard(leaderboard);
+        metrics.addJvm();
+        metrics.start();
+        LeaderboardServer.startFromProperties(leaderboard);
+
+        for (StationEngine station : stations) {
+            station.start();
+        }
+        engineThread.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            for (StationEngine station : stations) {
+                station.checkTimeLimit(now);
+            }
+        }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        startDaemon(() -> readCommands(System.in), "stdin-commands");
+    }
+
+    @Override
+    public void onChange(StationEngine station, GameState previous, GameState next, long nanos, boolean fromSerial) {
+        if (next.equals(previous)) {
+            return; // e.g. the rig repeating the lives it already reported
+        }
+        emit(describe(station, next));
+        if (!previous.gameOver() && next.gameOver()) {
+            emit("FINISHED station=" + (station.getIndex() + 1) + " time=" + next.elapsedMillis(nanos)
+                    + " lives=" + next.attempts());
+        }
+    }
+
+    @Override
+    public void onStatus(StationEngine station, String message) {
+        emit("STATUS station=" + (station.getIndex() + 1) + " message=" + message);
+    }
+
+    @Override
+    public void onConnected(StationEngine station) {
+        startupProbe.serialReady(station.getName());
+    }
+
+    private static String describe(StationEngine station, GameState state) {
+        return "STATE station=" + (station.getIndex() + 1) + " lives=" + state.attempts()
+                + " clock=" + (state.clockRunning() ? "running" : "stopped")
+                + " time=" + state.elapsedMillis(System.nanoTime()) + " over=" + state.gameOver();
+    }
+
+    private void emit(String line) {
+        if (!output.offer(line)) {
+            droppedLines.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            String line;
+            try {
+                line = output.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println(line);
+            for (Writer client : clients) {
+                try {
+                    client.write(line);
+                    client.write('\n');
+                    client.flush();
+                } catch (IOException e) {
+                    clients.remove(client); // Gone; its reader thread closes the socket
+                }
+            }
+        }
+    }
+
+    private void acceptLoop(ServerSocket server) {
+        while (true) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                System.out.println("State port closed: " + e.getMessage());
+                return;
+            }
+            startDaemon(() -> serveClient(socket), "state-client-" + socket.getPort());
+        }
+    }
+
+    private void serveClient(Socket socket) {
+        try (socket) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            clients.add(writer);
+            engineThread.execute(this::emitStatus); // A new client starts from the current state
+            readCommands(socket.getInputStream());
+            clients.remove(writer);
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private void readCommands(InputStream in) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String command = line.trim();
+                if (!command.isEmpty()) {
+                    engineThread.execute(() -> handle(command));
+                }
+            }
+        } catch (IOException e) {
+            // Input closed; the stations carry on
+        }
+    }
+
+    private void handle(String command) {
+        String[] parts = command.split("\\s+", 3);
+        String verb = parts[0].toLowerCase(Locale.ROOT);
+        try {
+            switch (verb) {
+                case "status" -> emitStatus();
+                case "top" -> emitTop(parts.length > 1 ? Integer.parseInt(parts[1]) : DEFAULT_TOP);
+                case "start" -> station(parts).restart();
+                case "stop" -> station(parts).stopClock();
+                case "finish" -> station(parts).finish();
+                case "reset" -> station(parts).resetTimer();
+                case "save" -> save(station(parts), parts.length > 2 ? parts[2].trim() : "");
+                default -> emit("ERROR message=Unknown command: " + command);
+            }
+        } catch (NumberFormatException e) {
+            emit("ERROR message=Not a number in: " + command);
+        } catch (IllegalArgumentException e) {
+            emit("ERROR message=" + e.getMessage());
+        }
+    }
+
+    private StationEngine station(String[] parts) {
+        int number = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+        if (number < 1 || number > stations.size()) {
+            throw new IllegalArgumentException("No station " + number);
+        }
+        return stations.get(number - 1);
+    }
+
+    // Same as confirming the nickname dialog in the window
+    private void save(StationEngine station, String driver) {
+        if (driver.isEmpty()) {
+            throw new IllegalArgumentException("save needs a driver name");
+        }
+        GameState race = station.currentState();
+        if (!race.gameOver()) {
+            throw new IllegalArgumentException(station.getName() + " has not finished a race");
+        }
+        if (savedRaces[station.getIndex()] == race) {
+            throw new IllegalArgumentException(station.getName() + " race is already saved");
+        }
+        savedRaces[station.getIndex()] = race;
+        PlayerScore score = station.score(driver);
+        leaderboard.save(score);
+        emit("SAVED station=" + (station.getIndex() + 1) + " rank=" + leaderboard.getIndex().rankOf(score)
+                + " time=" + score.timeMillis + " lives=" + score.livesLeft + " driver=" + score.player);
+    }
+
+    private void emitStatus() {
+        for (StationEngine station : stations) {
+            emit(describe(station, station.currentState()));
+        }
+    }
+
+    private void emitTop(int count) {
+        LeaderboardIndex index = leaderboard.getIndex();
+        for (int i = 0; i < Math.min(count, index.size()); i++) {
+            PlayerScore score = index.get(i);
+            emit("TOP rank=" + index.rankOf(score) + " time=" + score.timeMillis
+                    + " lives=" + score.livesLeft + " driver=" + score.player);
+        }
+    }
+
+    private static void startDaemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
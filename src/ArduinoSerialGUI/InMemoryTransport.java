@@ -0,0 +1,77 @@
+package ArduinoSerialGUI;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Transport fed from inside the JVM, for simulators and benchmarks.
+// Writers may call write() from any thread; the reader blocks until data arrives.
+final class InMemoryTransport implements SerialTransport {
+
+    private static final byte[] END = new byte[0];
+
+    private final String name;
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private byte[] current;
+    private int position;
+    private volatile boolean closed;
+
+    InMemoryTransport(String name) {
+        this.name = name;
+    }
+
+    void write(byte[] data) {
+        if (data.length > 0 && !closed) {
+            chunks.add(data.clone());
+        }
+    }
+
+    void writeLine(String line) {
+        write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Lets the reader drain what is queued and then see end of stream
+    void endOfStream() {
+        chunks.add(END);
+    }
+
+    @Override
+    public void open() {
+    }
+
+    @Override
+    public int read(byte[] buffer) {
+        try {
+            if (current == null) {
+                current = chunks.take();
+                position = 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+        if (current == END) {
+            chunks.add(END); // Keep returning end of stream on later reads
+            current = null;
+            return -1;
+        }
+        int count = Math.min(buffer.length, current.length - position);
+        System.arraycopy(current, position, buffer, 0, count);
+        position += count;
+        if (position == current.length) {
+            current = null;
+        }
+        return count;
+    }
+
+    @Override
+    public String describe() {
+        return "memory:" + name;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        endOfStream();
+    }
+}
@@ -0,0 +1,51 @@
+package ArduinoSerialGUI;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.IOException;
+
+// Transport backed by a real serial port
+final class JSerialCommTransport implements SerialTransport {
+
+    private final String portName;
+    private final int baudRate;
+    private SerialPort comPort;
+
+    JSerialCommTransport(String portName, int baudRate) {
+        this.portName = portName;
+        this.baudRate = baudRate;
+    }
+
+    @Override
+    public void open() throws IOException {
+        comPort = SerialPort.getCommPort(portName);
+        comPort.setBaudRate(baudRate);
+        if (!comPort.openPort()) {
+            throw new IOException("Failed to open port " + portName);
+        }
+        // Semi-blocking read with no timeout: readBytes parks the thread until at
+        // least one byte arrives and then returns whatever is already buffered
+        comPort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 0, 0);
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        int numRead = comPort.readBytes(buffer, buffer.length);
+        if (numRead < 0) {
+            throw new IOException("Serial port read failed on " + portName);
+        }
+        return numRead;
+    }
+
+    @Override
+    public String describe() {
+        return portName;
+    }
+
+    @Override
+    public void close() {
+        if (comPort != null) {
+            comPort.closePort();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ArduinoSerialGUI;
+
+// One entry of the event journal. Buzz carries the lives left in value;
+// score entries also carry the saved time and the driver's name, and CLEAR
+// marks the leaderboard being reset, dropping every score before it. Clock
+// values are System.nanoTime() stamps, which only compare within one run of
+// the program, so every run starts with an OPENED entry holding wall time.
+record JournalEvent(Type type, int station, long nanos, int value, long timeMillis, String name) {
+
+    enum Type {
+        OPENED, RESTART, RESET_TIMER, BUZZ, STOP, FINISH, SCORE, CLEAR;
+
+        private static final Type[] VALUES = values();
+
+        static Type fromCode(int code) {
+            if (code < 0 || code >= VALUES.length) {
+                throw new IllegalArgumentException("Unknown journal event type " + code);
+            }
+            return VALUES[code];
+        }
+    }
+
+    static JournalEvent of(Type type, int station, long nanos, int value) {
+        return new JournalEvent(type, station, nanos, value, 0, null);
+    }
+
+    static JournalEvent score(int station, long nanos, String name, long timeMillis, int livesLeft) {
+        return new JournalEvent(Type.SCORE, station, nanos, livesLeft, timeMillis, name);
+    }
+}
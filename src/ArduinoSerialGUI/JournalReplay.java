@@ -0,0 +1,152 @@
+package ArduinoSerialGUI;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Reads an EventJournal back, either to rebuild the leaderboard from the
+// saved scores or to run the recorded games through GameState again.
+//
+//   java -cp BuzzWireGame.jar ArduinoSerialGUI.JournalReplay rebuild events.journal leaderboard.csv
+//   java -cp BuzzWireGame.jar ArduinoSerialGUI.JournalReplay replay events.journal [speed]
+final class JournalReplay {
+
+    interface Listener {
+        void onEvent(JournalEvent event, GameState state);
+    }
+
+    private JournalReplay() {
+    }
+
+    // Streams every complete record to the consumer. A record cut short by a
+    // crash at the end of the file is ignored.
+    static void read(File journal, Consumer<JournalEvent> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal), 64 * 1024))) {
+            if (in.readInt() != EventJournal.MAGIC) {
+                throw new IOException(journal + " is not an event journal");
+            }
+            while (true) {
+                JournalEvent event;
+                try {
+                    event = readEvent(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                consumer.accept(event);
+            }
+        }
+    }
+
+    private static JournalEvent readEvent(DataInputStream in) throws IOException {
+        JournalEvent.Type type = JournalEvent.Type.fromCode(in.readUnsignedByte());
+        int station = in.readUnsignedByte();
+        long nanos = in.readLong();
+        int value = in.readInt();
+        if (type == JournalEvent.Type.OPENED) {
+            return new JournalEvent(type, station, nanos, value, in.readLong(), null);
+        }
+        if (type == JournalEvent.Type.SCORE) {
+            long timeMillis = in.readLong();
+            byte[] name = new byte[in.readUnsignedShort()];
+            in.readFully(name);
+            return JournalEvent.score(station, nanos, new String(name, StandardCharsets.UTF_8), timeMillis, value);
+        }
+        return JournalEvent.of(type, station, nanos, value);
+    }
+
+    static List<PlayerScore> rebuildLeaderboard(File journal) throws IOException {
+        List<PlayerScore> scores = new ArrayList<>();
+        read(journal, event -> {
+            if (event.type() == JournalEvent.Type.SCORE) {
+                scores.add(new PlayerScore(event.name(), event.timeMillis(), event.value()));
+            } else if (event.type() == JournalEvent.Type.CLEAR) {
+                scores.clear();
+            }
+        });
+        return scores;
+    }
+
+    // Applies every event to a GameState per station, as the live sessions did.
+    // speed 1.0 keeps the original pacing, POSITIVE_INFINITY runs flat out.
+    static void replay(File journal, double speed, Listener listener) throws IOException {
+        Map<Integer, GameState> states = new HashMap<>();
+        long[] clock = new long[2]; // first event nanos of this run, replay start nanos
+        read(journal, event -> {
+            if (event.type() == JournalEvent.Type.OPENED) {
+                // nanoTime stamps restart with every run of the program
+                states.clear();
+                clock[0] = event.nanos();
+                clock[1] = System.nanoTime();
+            } else if (speed != Double.POSITIVE_INFINITY) {
+                waitUntil(clock[1] + (long) ((event.nanos() - clock[0]) / speed));
+            }
+
+            GameState state = states.computeIfAbsent(event.station(), s -> GameState.initial(event.nanos()));
+            state = apply(state, event);
+            states.put(event.station(), state);
+            listener.onEvent(event, state);
+        });
+    }
+
+    static GameState apply(GameState state, JournalEvent event) {
+        switch (event.type()) {
+            case RESTART:
+                return state.restart(event.nanos());
+            case RESET_TIMER:
+                return state.resetTimer(event.nanos());
+            case BUZZ:
+                return state.buzz(event.value(), event.nanos());
+            case STOP:
+                return state.stopClock(event.nanos());
+            case FINISH:
+                return state.finish(event.nanos());
+            default:
+                return state;
+        }
+    }
+
+    private static void waitUntil(long dueNanos) {
+        long waitNanos;
+        while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("rebuild")) {
+            File journal = new File(args[1]);
+            File output = new File(args.length > 2 ? args[2] : "leaderboard.csv");
+            List<PlayerScore> scores = rebuildLeaderboard(journal);
+            LeaderboardStore.writeCsv(scores, output);
+            System.out.println("Wrote " + scores.size() + " scores to " + output);
+        } else if (args.length >= 2 && args[0].equals("replay")) {
+            double speed = args.length > 2 ? Double.parseDouble(args[2]) : Double.POSITIVE_INFINITY;
+            long started = System.nanoTime();
+            long[] count = new long[1];
+            replay(new File(args[1]), speed, (event, state) -> {
+                count[0]++;
+                System.out.printf("station %d %-11s value=%d lives=%d gameOver=%b time=%s%n",
+                        event.station() + 1, event.type(), event.value(), state.attempts(), state.gameOver(),
+                        PlayerScore.formatRaceTime(state.elapsedMillis(event.nanos())));
+            });
+            System.out.printf("Replayed %d events in %.1f ms%n", count[0], (System.nanoTime() - started) / 1e6);
+        } else {
+            System.out.println("Usage: JournalReplay rebuild <journal> [leaderboard.csv]");
+            System.out.println("       JournalReplay replay <journal> [speed]");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ArduinoSerialGUI;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free latency histogram. Values are bucketed by their power of two and
+// then split into 8 linear sub-buckets, so percentiles are within ~12%.
+final class LatencyRecorder {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = 64 * SUB_COUNT;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long current;
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+            // Retry until we either win or someone recorded a larger value
+        }
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getTotalNanos() {
+        return total.get();
+    }
+
+    long getMaxNanos() {
+        return max.get();
+    }
+
+    long getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : total.get() / n;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0.0 - 1.0)
+    long percentileNanos(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Percentiles of only what was recorded between calls to next(), for
+    // live displays; the recorder's own totals are left alone
+    final class Window {
+        private final long[] seen = new long[BUCKETS];
+        private final long[] recent = new long[BUCKETS];
+        private long recentCount;
+
+        void next() {
+            recentCount = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long current = counts.get(i);
+                recent[i] = current - seen[i];
+                seen[i] = current;
+                recentCount += recent[i];
+            }
+        }
+
+        long getCount() {
+            return recentCount;
+        }
+
+        long percentileNanos(double percentile) {
+            if (recentCount == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile * recentCount));
+            long found = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                found += recent[i];
+                if (found >= target) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+
+    Window newWindow() {
+        return new Window();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    String summary() {
+        return String.format("%s: n=%d p50=%.3fms p99=%.3fms max=%.3fms",
+                name, getCount(),
+                percentileNanos(0.50) / 1_000_000.0,
+                percentileNanos(0.99) / 1_000_000.0,
+                getMaxNanos() / 1_000_000.0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        if (exponent >= 60) {
+            return Long.MAX_VALUE;
+        }
+        int sub = bucket % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,14 @@
+package ArduinoSerialGUI;
+
+// Entry point of the jar. Picks the mode before any window class is loaded,
+// so --headless runs without loading AWT at all.
+final class Launcher {
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessMode.main(args);
+        } else {
+            ArduinoSerialGUI.main(args);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ArduinoSerialGUI;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Saved scores: the in-memory board and driver stats, and the files behind
+// them. load() reads the binary store once at startup, importing the CSV
+// first if it is newer. After that save() keeps the indexes up to date and
+// hands the row to the ScoreWriter, so showing the board never touches the
+// files.
+final class Leaderboard implements Closeable {
+
+    private final File csvFile;
+    private final LeaderboardStore store;
+    private final int topK;
+    private final LeaderboardIndex index;
+    private final DriverIndex drivers = new DriverIndex();
+    private final ScoreWriter writer;
+    private final LatencyRecorder loadTime = new LatencyRecorder("Leaderboard load time");
+    private final LatencyRecorder saveTime = new LatencyRecorder("Leaderboard save time");
+    // Bumped by every change to the board, so views built from it know to
+    // rebuild. Only written while holding the lock.
+    private volatile long version;
+
+    // One page of the board as it was at a single version
+    record Page(long version, int total, List<PlayerScore> scores) {
+    }
+
+    // topK > 0 loads and keeps only the best topK scores
+    Leaderboard(File csvFile, File storeFile, int topK, String syncPolicy, Consumer<String> errorHandler) {
+        this.csvFile = csvFile;
+        this.store = new LeaderboardStore(storeFile, LeaderboardStore.namesFileFor(storeFile));
+        this.topK = topK;
+        this.index = topK > 0 ? new LeaderboardIndex(topK) : new LeaderboardIndex();
+        this.writer = new ScoreWriter(csvFile, store, syncPolicy, errorHandler);
+    }
+
+    LeaderboardIndex getIndex() {
+        return index;
+    }
+
+    DriverIndex getDrivers() {
+        return drivers;
+    }
+
+    synchronized void load() throws IOException {
+        long start = System.nanoTime();
+        index.clear();
+        drivers.clear();
+        if (store.isOutOfDate(csvFile)) {
+            store.importCsv(csvFile);
+        }
+        if (topK > 0) {
+            List<PlayerScore> top = store.loadTop(topK);
+            index.load(top);
+            // The stats still cover every run, only the board is limited
+            store.forEachRun(drivers::recordRun);
+            drivers.loadBoard(top);
+        } else {
+            List<PlayerScore> scores = store.load();
+            index.load(scores);
+            drivers.load(scores);
+        }
+        version++;
+        loadTime.record(System.nanoTime() - start);
+    }
+
+    // The board shows the score straight away; the files are written in the background
+    synchronized void save(PlayerScore score) {
+        long start = System.nanoTime();
+        PlayerScore dropped = index.add(score);
+        drivers.add(score);
+        if (dropped != null) {
+            drivers.removeFromBoard(dropped);
+        }
+        writer.save(score);
+        version++;
+        saveTime.record(System.nanoTime() - start);
+    }
+
+    synchronized void clear() {
+        writer.clear(); // Clears the files after any scores still being written
+        index.clear();
+        drivers.clear();
+        version++;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    // count scores from the 0-based rank offset
+    synchronized Page page(int offset, int count) {
+        return new Page(version, index.size(), index.range(offset, count));
+    }
+
+    // Successful loads only
+    LatencyRecorder getLoadTime() {
+        return loadTime;
+    }
+
+    // Updating the board and queueing the row, not the disk write
+    LatencyRecorder getSaveTime() {
+        return saveTime;
+    }
+
+    LatencyRecorder getWriteLatency() {
+        return writer.getWriteLatency();
+    }
+
+    // Scores shown on the board that could not be written to the files
+    long getLostScores() {
+        return writer.getLostScores();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+}
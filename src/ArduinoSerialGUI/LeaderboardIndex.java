@@ -0,0 +1,275 @@
+package ArduinoSerialGUI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+// All scores kept in ranking order (lives desc, time asc, then the order they
+// were saved in). It is an indexable skip list: every link also stores how
+// many entries it jumps over, so both adding a score and fetching the score
+// at a given rank take O(log n) and the board never has to be re-sorted.
+//
+// With a capacity only the best that many scores are kept: a new score that
+// ranks below all of them is ignored and one that makes the board pushes the
+// last entry off, so memory stays bounded however long the history gets.
+final class LeaderboardIndex {
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final PlayerScore score;
+        final long sequence;
+        final Node[] next;
+        // width[i] is the rank distance from this node to next[i]
+        final int[] width;
+
+        Node(PlayerScore score, long sequence, int level) {
+            this.score = score;
+            this.sequence = sequence;
+            this.next = new Node[level];
+            this.width = new int[level];
+        }
+    }
+
+    private final int capacity;
+    private Node head = new Node(null, -1, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+    private long nextSequence;
+
+    LeaderboardIndex() {
+        this(Integer.MAX_VALUE);
+    }
+
+    LeaderboardIndex(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Leaderboard capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    // Returns the score pushed off the bottom of a full board, which may be
+    // the new one itself, or null
+    synchronized PlayerScore add(PlayerScore score) {
+        long sequence = nextSequence++;
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        // Find the last node before the new one on every level, and its rank
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], score, sequence) < 0) {
+                rank[i] += x.width[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int newLevel = randomLevel();
+        if (newLevel > level) {
+            for (int i = level; i < newLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.width[i] = size;
+            }
+            level = newLevel;
+        }
+
+        Node node = new Node(score, sequence, newLevel);
+        for (int i = 0; i < newLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.width[i] = update[i].width[i] - (rank[0] - rank[i]);
+            update[i].width[i] = rank[0] - rank[i] + 1;
+        }
+        // Links on higher levels now jump over one more entry
+        for (int i = newLevel; i < level; i++) {
+            update[i].width[i]++;
+        }
+        size++;
+        return size > capacity ? removeLast() : null;
+    }
+
+    // Replaces the contents with the given scores, taken to be in the order they
+    // were saved. Sorting once and linking the nodes in a single pass is much
+    // cheaper than adding them one by one when loading a long history.
+    synchronized void load(List<PlayerScore> scores) {
+        List<PlayerScore> sorted = new ArrayList<>(scores);
+        sorted.sort(PlayerScore.RANKING); // Stable, so ties keep their saved order
+
+        clear();
+        Node[] last = new Node[MAX_LEVEL];
+        int[] lastRank = new int[MAX_LEVEL];
+        Arrays.fill(last, head);
+        int rank = 0;
+        for (PlayerScore score : sorted.subList(0, Math.min(sorted.size(), capacity))) {
+            rank++;
+            int nodeLevel = randomLevel();
+            Node node = new Node(score, nextSequence++, nodeLevel);
+            for (int i = 0; i < nodeLevel; i++) {
+                last[i].next[i] = node;
+                last[i].width[i] = rank - lastRank[i];
+                last[i] = node;
+                lastRank[i] = rank;
+            }
+            level = Math.max(level, nodeLevel);
+        }
+        size = rank;
+        // Links off the end count the remaining entries, as add() expects
+        for (int i = 0; i < level; i++) {
+            last[i].width[i] = size - lastRank[i];
+        }
+    }
+
+    // Score at the given 0-based rank
+    synchronized PlayerScore get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Rank " + index + " of " + size);
+        }
+        int target = index + 1;
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.width[i] <= target) {
+                traversed += x.width[i];
+                x = x.next[i];
+            }
+            if (traversed == target) {
+                return x.score;
+            }
+        }
+        throw new IllegalStateException("Leaderboard index is corrupt");
+    }
+
+    // Up to count scores from the given 0-based rank, in ranking order
+    synchronized List<PlayerScore> range(int from, int count) {
+        List<PlayerScore> scores = new ArrayList<>(Math.max(0, Math.min(count, size - from)));
+        if (from < 0 || from >= size || count <= 0) {
+            return scores;
+        }
+        int target = from + 1;
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0 && traversed < target; i--) {
+            while (x.next[i] != null && traversed + x.width[i] <= target) {
+                traversed += x.width[i];
+                x = x.next[i];
+            }
+        }
+        for (; x != null && scores.size() < count; x = x.next[0]) {
+            scores.add(x.score);
+        }
+        return scores;
+    }
+
+    // 1-based position of the score; runs that tie share the best position
+    synchronized int rankOf(PlayerScore score) {
+        int before = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && PlayerScore.RANKING.compare(x.next[i].score, score) < 0) {
+                before += x.width[i];
+                x = x.next[i];
+            }
+        }
+        return before + 1;
+    }
+
+    // 1-based place of this very score on the board. Runs that tie keep the
+    // order they were saved in, so this is the row the score is shown on.
+    synchronized int positionOf(PlayerScore score) {
+        int before = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && PlayerScore.RANKING.compare(x.next[i].score, score) < 0) {
+                before += x.width[i];
+                x = x.next[i];
+            }
+        }
+        for (Node tie = x.next[0]; tie != null && tie.score != score; tie = tie.next[0]) {
+            before++;
+        }
+        return before + 1;
+    }
+
+    // The scores that pass the filter, in ranking order
+    synchronized List<PlayerScore> filter(Predicate<PlayerScore> filter) {
+        List<PlayerScore> scores = new ArrayList<>();
+        for (Node x = head.next[0]; x != null; x = x.next[0]) {
+            if (filter.test(x.score)) {
+                scores.add(x.score);
+            }
+        }
+        return scores;
+    }
+
+    synchronized int getCapacity() {
+        return capacity;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        head = new Node(null, -1, MAX_LEVEL);
+        level = 1;
+        size = 0;
+    }
+
+    // Copy of the whole board in ranking order
+    synchronized List<PlayerScore> toList() {
+        List<PlayerScore> scores = new ArrayList<>(size);
+        for (Node x = head.next[0]; x != null; x = x.next[0]) {
+            scores.add(x.score);
+        }
+        return scores;
+    }
+
+    // Unlinks the lowest ranked entry and returns its score
+    private PlayerScore removeLast() {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.width[i] < size) {
+                traversed += x.width[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node last = update[0].next[0];
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == last) {
+                update[i].next[i] = null;
+                update[i].width[i] += last.width[i] - 1;
+            } else {
+                update[i].width[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return last.score;
+    }
+
+    private static int compare(Node node, PlayerScore score, long sequence) {
+        int result = PlayerScore.RANKING.compare(node.score, score);
+        return result != 0 ? result : Long.compare(node.sequence, sequence);
+    }
+
+    // Each level holds about a quarter of the nodes of the one below
+    private static int randomLevel() {
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && random.nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+}
@@ -0,0 +1,301 @@
+package ArduinoSerialGUI;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves the standings to the venue's TVs and anything else with a browser:
+//   /                  - an HTML page of the board that refreshes itself
+//   /leaderboard.json  - the same as JSON
+// Both take ?page=N&size=M: 1-based pages of up to 100 rows, 20 by default.
+//
+// A response is serialized once per version of the board and page, then
+// handed out as the same bytes until the next score is saved. Its ETag names
+// that version, and displays polling an unchanged board get an empty 304, so
+// hundreds of them cost a map lookup each.
+final class LeaderboardServer {
+
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 100;
+    private static final int MAX_CACHED = 256;
+    private static final int REFRESH_SECONDS = 5;
+    private static final int THREADS = 4;
+
+    private record Response(long version, String etag, String contentType, byte[] body) {
+    }
+
+    private final Leaderboard leaderboard;
+    // Part of every ETag, so one saved before a restart never matches
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentHashMap<String, Response> cache = new ConcurrentHashMap<>();
+    private volatile long cachedVersion = -1;
+    private HttpServer server;
+    private ExecutorService workers;
+
+    LeaderboardServer(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    // -Dbuzzwire.boardPort=8080 serves the board on this machine only. The
+    // displays around the venue need -Dbuzzwire.boardHost as well, 0.0.0.0
+    // for every interface or the address of one. Returns null when it is off.
+    static LeaderboardServer startFromProperties(Leaderboard leaderboard) {
+        int port = Integer.getInteger("buzzwire.boardPort", 0);
+        if (port <= 0) {
+            return null;
+        }
+        String host = System.getProperty("buzzwire.boardHost");
+        LeaderboardServer server = new LeaderboardServer(leaderboard);
+        try {
+            server.start(host != null ? new InetSocketAddress(host, port)
+                    : new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            System.out.println("Leaderboard on http://" + server.getAddress().getHostString() + ":"
+                    + server.getPort() + "/");
+            return server;
+        } catch (IOException e) {
+            System.out.println("Leaderboard port " + port + " not available: " + e.getMessage());
+            return null;
+        }
+    }
+
+    void start(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 64);
+        server.createContext("/", exchange -> handle(exchange, true));
+        server.createContext("/leaderboard.json", exchange -> handle(exchange, false));
+        workers = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread thread = new Thread(r, "board-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.start();
+    }
+
+    InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        workers.shutdown();
+    }
+
+    private void handle(HttpExchange exchange, boolean html) throws IOException {
+        try (exchange) {
+            // Read to the end first, or the server drops the connection after
+            // a response without a body (304, HEAD) and pollers reconnect
+            exchange.getRequestBody().close();
+            String method = exchange.getRequestMethod();
+            boolean head = method.equals("HEAD");
+            if (!head && !method.equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (html && !exchange.getRequestURI().getPath().equals("/")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            int page;
+            int size;
+            try {
+                page = parameter(exchange.getRequestURI(), "page", 1);
+                size = parameter(exchange.getRequestURI(), "size", DEFAULT_SIZE);
+            } catch (NumberFormatException e) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            if (page < 1 || size < 1 || size > MAX_SIZE) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            Response response = responseFor(html, page, size);
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", response.etag());
+            // Cached, but checked with us every time
+            headers.set("Cache-Control", "no-cache");
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null && matches(ifNoneMatch, response.etag())) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            headers.set("Content-Type", response.contentType());
+            if (head) {
+                headers.set("Content-Length", String.valueOf(response.body().length));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, response.body().length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body());
+            }
+        }
+    }
+
+    // The stored response if the board has not changed since it was built
+    private Response responseFor(boolean html, int page, int size) {
+        long version = leaderboard.getVersion();
+        if (version != cachedVersion) {
+            cache.clear();
+            cachedVersion = version;
+        }
+        String key = (html ? "html:" : "json:") + page + ":" + size;
+        Response response = cache.get(key);
+        if (response != null && response.version() >= version) {
+            return response;
+        }
+        Leaderboard.Page data = leaderboard.page((page - 1) * size, size);
+        String etag = "\"" + instance + "-" + data.version() + "-" + key + "\"";
+        response = html
+                ? new Response(data.version(), etag, "text/html; charset=utf-8", html(data, page, size))
+                : new Response(data.version(), etag, "application/json; charset=utf-8", json(data, page, size));
+        // Odd page sizes from curious clients are served but not kept
+        if (cache.size() < MAX_CACHED) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    private static byte[] json(Leaderboard.Page data, int page, int size) {
+        StringBuilder out = new StringBuilder(128 + data.scores().size() * 96);
+        out.append("{\"version\":").append(data.version())
+                .append(",\"total\":").append(data.total())
+                .append(",\"page\":").append(page)
+                .append(",\"size\":").append(size)
+                .append(",\"pages\":").append(pages(data.total(), size))
+                .append(",\"scores\":[");
+        int rank = (page - 1) * size;
+        for (PlayerScore score : data.scores()) {
+            if (rank > (page - 1) * size) {
+                out.append(',');
+            }
+            out.append("{\"rank\":").append(++rank)
+                    .append(",\"driver\":\"");
+            appendJson(out, score.player);
+            out.append("\",\"time\":\"").append(PlayerScore.formatRaceTime(score.timeMillis))
+                    .append("\",\"timeMillis\":").append(score.timeMillis)
+                    .append(",\"lives\":").append(score.livesLeft)
+                    .append(",\"points\":").append(score.points())
+                    .append('}');
+        }
+        out.append("]}");
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] html(Leaderboard.Page data, int page, int size) {
+        StringBuilder out = new StringBuilder(2048 + data.scores().size() * 160);
+        out.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\">")
+                .append("<meta http-equiv=\"refresh\" content=\"").append(REFRESH_SECONDS).append("\">")
+                .append("<title>Buzz Wire Challenge</title><style>")
+                .append("body{margin:0;padding:2vw;background:#0f0f0f;color:#d2d2d2;font:2.2vw Arial,sans-serif}")
+                .append("h1{color:#dc0000;font-size:4vw;margin:0 0 1vw}")
+                .append("table{width:100%;border-collapse:collapse}")
+                .append("th{background:#dc0000;color:#fff;text-align:left;padding:.6vw}")
+                .append("td{padding:.6vw;border-bottom:1px solid #282828}")
+                .append("nav{margin-top:1vw}a{color:#ffd700}")
+                .append("</style></head><body><h1>Buzz Wire Challenge</h1>")
+                .append("<table><tr><th>Pos</th><th>Driver</th><th>Time</th><th>Lives</th><th>Points</th></tr>");
+        int rank = (page - 1) * size;
+        for (PlayerScore score : data.scores()) {
+            out.append("<tr><td>").append(++rank).append("</td><td>");
+            appendHtml(out, score.player);
+            out.append("</td><td>").append(PlayerScore.formatRaceTime(score.timeMillis))
+                    .append("</td><td>").append(score.livesLeft)
+                    .append("</td><td>").append(score.points()).append("</td></tr>");
+        }
+        out.append("</table><nav>");
+        if (page > 1) {
+            out.append("<a href=\"/?page=").append(page - 1).append("&amp;size=").append(size).append("\">&laquo; Previous</a> ");
+        }
+        out.append("Page ").append(page).append(" of ").append(pages(data.total(), size));
+        if (page < pages(data.total(), size)) {
+            out.append(" <a href=\"/?page=").append(page + 1).append("&amp;size=").append(size).append("\">Next &raquo;</a>");
+        }
+        out.append("</nav></body></html>\n");
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int pages(int total, int size) {
+        return Math.max(1, (total + size - 1) / size);
+    }
+
+    private static int parameter(URI uri, String name, int defaultValue) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return Integer.parseInt(pair.substring(name.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    // If-None-Match may list several tags, or * for any
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendJson(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static void appendHtml(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                case '\'':
+                    out.append("&#39;");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+}
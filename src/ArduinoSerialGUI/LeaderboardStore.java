@@ -0,0 +1,571 @@
+package ArduinoSerialGUI;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary copy of the leaderboard that loads in milliseconds even with
+// millions of runs. Two append-only files:
+//
+//   records: int MAGIC, int VERSION, int clearedRecords, long csvLength,
+//            long csvModified, then one 12 byte record per score:
+//            int timeMillis, int livesLeft, int nameOffset
+//   names:   unsigned short length + UTF-8 bytes per distinct driver name
+//
+// Both are read through memory mapping. A driver's name is stored once and
+// shared by all of their runs. RESET only raises clearedRecords instead of
+// truncating, because Windows refuses to shrink a file that is still mapped;
+// the space is reclaimed the next time the store is loaded.
+//
+// csvLength and csvModified are the size and timestamp leaderboard.csv had
+// when the store last matched it. A CSV that differs in either was edited,
+// replaced or deleted by hand and is imported again.
+final class LeaderboardStore {
+
+    private static final int MAGIC = 0x42574c31; // "BWL1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 28;
+    private static final int CLEARED_POSITION = 8;
+    private static final int CSV_STAMP_POSITION = 12;
+    private static final int RECORD_SIZE = 12;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final String CSV_HEADER = "Player,Time,LivesLeft";
+
+    interface RunVisitor {
+        void visit(String player, int timeMillis, int livesLeft);
+    }
+
+    private final File recordsFile;
+    private final File namesFile;
+    private final Map<String, Integer> nameOffsets = new HashMap<>();
+    private FileChannel records;
+    private FileChannel names;
+    private int recordCount;
+
+    LeaderboardStore(File recordsFile, File namesFile) {
+        this.recordsFile = recordsFile;
+        this.namesFile = namesFile;
+    }
+
+    // True when the CSV is not the one the binary copy was last matched to,
+    // or the binary copy is missing or from an older version. A deleted CSV
+    // counts as an empty one.
+    boolean isOutOfDate(File csv) {
+        if (!recordsFile.exists() || !namesFile.exists()) {
+            return true;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(recordsFile.toPath(), StandardOpenOption.READ)) {
+            readHeader(channel, header);
+        } catch (IOException e) {
+            return true;
+        }
+        if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            return true;
+        }
+        return header.getLong(CSV_STAMP_POSITION) != csv.length()
+                || header.getLong(CSV_STAMP_POSITION + 8) != csv.lastModified();
+    }
+
+    // Notes that the CSV now holds the same scores as the store, after the
+    // writer has appended to it or cleared it
+    synchronized void matchCsv(File csv) throws IOException {
+        openChannels();
+        ByteBuffer stamp = ByteBuffer.allocate(16).putLong(csv.length()).putLong(csv.lastModified());
+        stamp.flip();
+        writeFully(records, stamp, CSV_STAMP_POSITION);
+    }
+
+    // All live scores in the order they were saved
+    synchronized List<PlayerScore> load() throws IOException {
+        if (!prepareLoad()) {
+            return new ArrayList<>();
+        }
+
+        List<PlayerScore> scores;
+        try (FileChannel recordChannel = FileChannel.open(recordsFile.toPath(), StandardOpenOption.READ);
+             FileChannel nameChannel = FileChannel.open(namesFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer recordBuffer = recordChannel.map(FileChannel.MapMode.READ_ONLY, 0, recordChannel.size());
+            MappedByteBuffer nameBuffer = nameChannel.map(FileChannel.MapMode.READ_ONLY, 0, nameChannel.size());
+            checkHeader(recordBuffer);
+
+            // A record cut short by a crash is ignored and overwritten by the next save
+            int count = (recordBuffer.limit() - HEADER_SIZE) / RECORD_SIZE;
+            scores = new ArrayList<>(count);
+            Map<Integer, String> namesByOffset = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int position = HEADER_SIZE + i * RECORD_SIZE;
+                int timeMillis = recordBuffer.getInt(position);
+                int livesLeft = recordBuffer.getInt(position + 4);
+                int nameOffset = recordBuffer.getInt(position + 8);
+                String name = namesByOffset.get(nameOffset);
+                if (name == null) {
+                    name = readName(nameBuffer, nameOffset);
+                    namesByOffset.put(nameOffset, name);
+                    nameOffsets.put(name, nameOffset);
+                }
+                scores.add(new PlayerScore(name, timeMillis, livesLeft));
+            }
+            recordCount = count;
+        }
+        return scores;
+    }
+
+    // The best k scores, in the order they were saved. The records are scanned
+    // once through a bounded heap that holds the worst of the k best so far at
+    // its root, so this takes O(n log k) time and O(k) memory however many
+    // runs are on file, and only the names of the survivors are decoded.
+    synchronized List<PlayerScore> loadTop(int k) throws IOException {
+        if (!prepareLoad()) {
+            return new ArrayList<>();
+        }
+
+        List<PlayerScore> scores;
+        try (FileChannel recordChannel = FileChannel.open(recordsFile.toPath(), StandardOpenOption.READ);
+             FileChannel nameChannel = FileChannel.open(namesFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer recordBuffer = recordChannel.map(FileChannel.MapMode.READ_ONLY, 0, recordChannel.size());
+            MappedByteBuffer nameBuffer = nameChannel.map(FileChannel.MapMode.READ_ONLY, 0, nameChannel.size());
+            checkHeader(recordBuffer);
+
+            int count = (recordBuffer.limit() - HEADER_SIZE) / RECORD_SIZE;
+            int[] heap = new int[Math.min(k, count)];
+            int heapSize = 0;
+            for (int i = 0; i < count; i++) {
+                if (heapSize < heap.length) {
+                    heap[heapSize] = i;
+                    siftUp(recordBuffer, heap, heapSize++);
+                } else if (heapSize > 0 && ranksBefore(recordBuffer, i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(recordBuffer, heap, heapSize);
+                }
+            }
+
+            // Back into saved order so ties keep ranking the way they always have
+            Arrays.sort(heap, 0, heapSize);
+            scores = new ArrayList<>(heapSize);
+            Map<Integer, String> namesByOffset = new HashMap<>();
+            for (int h = 0; h < heapSize; h++) {
+                int position = HEADER_SIZE + heap[h] * RECORD_SIZE;
+                int nameOffset = recordBuffer.getInt(position + 8);
+                String name = namesByOffset.computeIfAbsent(nameOffset, offset -> readName(nameBuffer, offset));
+                scores.add(new PlayerScore(name, recordBuffer.getInt(position), recordBuffer.getInt(position + 4)));
+            }
+
+            // Saving needs every known name to avoid storing it twice; there is
+            // one entry per driver, not per run, so this stays small
+            int offset = 0;
+            while (offset + 2 <= nameBuffer.limit()) {
+                int next = offset + 2 + Short.toUnsignedInt(nameBuffer.getShort(offset));
+                if (next > nameBuffer.limit()) {
+                    break; // Cut short by a crash
+                }
+                nameOffsets.putIfAbsent(readName(nameBuffer, offset), offset);
+                offset = next;
+            }
+            recordCount = count;
+        }
+        return scores;
+    }
+
+    // Hands every live run to the visitor in saved order without keeping them,
+    // e.g. to total up per-driver stats when only the top k are loaded.
+    // Call after load() or loadTop() so cleared runs are already gone.
+    synchronized void forEachRun(RunVisitor visitor) throws IOException {
+        try (FileChannel recordChannel = FileChannel.open(recordsFile.toPath(), StandardOpenOption.READ);
+             FileChannel nameChannel = FileChannel.open(namesFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer recordBuffer = recordChannel.map(FileChannel.MapMode.READ_ONLY, 0, recordChannel.size());
+            MappedByteBuffer nameBuffer = nameChannel.map(FileChannel.MapMode.READ_ONLY, 0, nameChannel.size());
+            checkHeader(recordBuffer);
+
+            int count = (recordBuffer.limit() - HEADER_SIZE) / RECORD_SIZE;
+            Map<Integer, String> namesByOffset = new HashMap<>();
+            for (int i = recordBuffer.getInt(CLEARED_POSITION); i < count; i++) {
+                int position = HEADER_SIZE + i * RECORD_SIZE;
+                String name = namesByOffset.computeIfAbsent(recordBuffer.getInt(position + 8),
+                        offset -> readName(nameBuffer, offset));
+                visitor.visit(name, recordBuffer.getInt(position), recordBuffer.getInt(position + 4));
+            }
+        }
+    }
+
+    synchronized void append(PlayerScore score) throws IOException {
+        openChannels();
+        Integer nameOffset = nameOffsets.get(score.player);
+        if (nameOffset == null) {
+            byte[] bytes = encodeName(score.player);
+            nameOffset = (int) names.size();
+            ByteBuffer entry = ByteBuffer.allocate(2 + bytes.length);
+            entry.putShort((short) bytes.length).put(bytes).flip();
+            writeFully(names, entry, nameOffset);
+            nameOffsets.put(score.player, nameOffset);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putInt(clampTime(score.timeMillis))
+                .putInt(score.livesLeft)
+                .putInt(nameOffset)
+                .flip();
+        writeFully(records, record, HEADER_SIZE + (long) recordCount * RECORD_SIZE);
+        recordCount++;
+    }
+
+    // Hides every score saved so far without shrinking the files
+    synchronized void clear() throws IOException {
+        openChannels();
+        ByteBuffer cleared = ByteBuffer.allocate(4).putInt(recordCount);
+        cleared.flip();
+        writeFully(records, cleared, CLEARED_POSITION);
+    }
+
+    // Replaces the store's contents with the rows of a CSV file
+    synchronized int importCsv(File csv) throws IOException {
+        List<PlayerScore> scores = readCsv(csv);
+        writeAll(scores, csv.length(), csv.lastModified());
+        return scores.size();
+    }
+
+    synchronized void exportCsv(File csv) throws IOException {
+        writeCsv(load(), csv);
+    }
+
+    synchronized void force() throws IOException {
+        if (records != null) {
+            records.force(false);
+            names.force(false);
+        }
+    }
+
+    synchronized void close() {
+        closeChannels();
+    }
+
+    // Reads leaderboard.csv, skipping the header and any row that does not
+    // parse instead of giving up on the whole file. Uses the platform charset,
+    // like the ScoreWriter does when it appends to the CSV.
+    static List<PlayerScore> readCsv(File csv) throws IOException {
+        List<PlayerScore> scores = new ArrayList<>();
+        if (!csv.exists()) {
+            return scores;
+        }
+        int skipped = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(csv))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty() || line.equals(CSV_HEADER)) {
+                    continue;
+                }
+                List<String> parts;
+                String next;
+                // A quoted name may run on over a line break
+                while ((parts = splitCsvRow(line)) == null && (next = br.readLine()) != null) {
+                    line += "\n" + next;
+                }
+                try {
+                    if (parts == null || parts.size() < 3) {
+                        throw new NumberFormatException("missing columns");
+                    }
+                    long timeMillis = PlayerScore.parseSeconds(parts.get(1));
+                    int livesLeft = Integer.parseInt(parts.get(2).trim());
+                    scores.add(new PlayerScore(parts.get(0), timeMillis, livesLeft));
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.out.println("Skipped " + skipped + " unreadable rows in " + csv);
+        }
+        return scores;
+    }
+
+    static void writeCsv(List<PlayerScore> scores, File csv) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(csv))) {
+            bw.write(CSV_HEADER + "\n");
+            StringBuilder row = new StringBuilder(64);
+            for (PlayerScore score : scores) {
+                row.setLength(0);
+                appendCsvRow(row, score);
+                bw.append(row);
+            }
+        }
+    }
+
+    // One CSV row with its newline. A name holding a comma, quote or line
+    // break is quoted, with quotes doubled, so it reads back as one field.
+    static void appendCsvRow(StringBuilder out, PlayerScore score) {
+        String name = score.player;
+        boolean quote = false;
+        for (int i = 0; i < name.length() && !quote; i++) {
+            char c = name.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (quote) {
+            out.append('"').append(name.replace("\"", "\"\"")).append('"');
+        } else {
+            out.append(name);
+        }
+        out.append(',').append(PlayerScore.formatSeconds(score.timeMillis))
+                .append(',').append(score.livesLeft).append('\n');
+    }
+
+    // The fields of a row, or null if a quoted field is still open at the end
+    static List<String> splitCsvRow(String row) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Rewrites both files in one go; only used before anything is mapped
+    private void writeAll(List<PlayerScore> scores, long csvLength, long csvModified) throws IOException {
+        closeChannels();
+        nameOffsets.clear();
+        ByteArrayOutputStream nameTable = new ByteArrayOutputStream();
+        ByteBuffer recordBuffer = ByteBuffer.allocate(HEADER_SIZE + scores.size() * RECORD_SIZE);
+        recordBuffer.putInt(MAGIC).putInt(VERSION).putInt(0).putLong(csvLength).putLong(csvModified);
+        for (PlayerScore score : scores) {
+            Integer nameOffset = nameOffsets.get(score.player);
+            if (nameOffset == null) {
+                byte[] bytes = encodeName(score.player);
+                nameOffset = nameTable.size();
+                nameTable.write(bytes.length >>> 8);
+                nameTable.write(bytes.length);
+                nameTable.write(bytes, 0, bytes.length);
+                nameOffsets.put(score.player, nameOffset);
+            }
+            recordBuffer.putInt(clampTime(score.timeMillis)).putInt(score.livesLeft).putInt(nameOffset);
+        }
+        Files.write(recordsFile.toPath(), recordBuffer.array());
+        Files.write(namesFile.toPath(), nameTable.toByteArray());
+        recordCount = scores.size();
+    }
+
+    // Drops open channels and reclaims cleared space before the files are
+    // mapped. Returns false when there was no store yet and an empty one was made.
+    private boolean prepareLoad() throws IOException {
+        closeChannels();
+        nameOffsets.clear();
+        if (!recordsFile.exists() || !namesFile.exists()) {
+            writeEmpty();
+            return false;
+        }
+        compactIfCleared();
+        return true;
+    }
+
+    // Same order as PlayerScore.RANKING, with the earlier save first on a tie
+    private static boolean ranksBefore(ByteBuffer buffer, int a, int b) {
+        int positionA = HEADER_SIZE + a * RECORD_SIZE;
+        int positionB = HEADER_SIZE + b * RECORD_SIZE;
+        int livesA = buffer.getInt(positionA + 4);
+        int livesB = buffer.getInt(positionB + 4);
+        if (livesA != livesB) {
+            return livesA > livesB;
+        }
+        int timeA = buffer.getInt(positionA);
+        int timeB = buffer.getInt(positionB);
+        if (timeA != timeB) {
+            return timeA < timeB;
+        }
+        return a < b;
+    }
+
+    // The heap keeps the lowest ranked record at index 0
+    private static void siftUp(ByteBuffer buffer, int[] heap, int index) {
+        int record = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(buffer, heap[parent], record)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = record;
+    }
+
+    private static void siftDown(ByteBuffer buffer, int[] heap, int size) {
+        int record = heap[0];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && ranksBefore(buffer, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranksBefore(buffer, record, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = record;
+    }
+
+    private void writeEmpty() throws IOException {
+        writeAll(new ArrayList<>(), 0, 0);
+    }
+
+    // Called before anything is mapped, so the files may be rewritten here
+    private void compactIfCleared() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(recordsFile.toPath(), StandardOpenOption.READ)) {
+            readHeader(channel, header);
+        }
+        checkHeader(header);
+        int cleared = header.getInt(CLEARED_POSITION);
+        if (cleared == 0) {
+            return;
+        }
+
+        byte[] recordBytes = Files.readAllBytes(recordsFile.toPath());
+        ByteBuffer recordBuffer = ByteBuffer.wrap(recordBytes);
+        ByteBuffer nameBuffer = ByteBuffer.wrap(Files.readAllBytes(namesFile.toPath()));
+        int count = (recordBytes.length - HEADER_SIZE) / RECORD_SIZE;
+        List<PlayerScore> remaining = new ArrayList<>();
+        for (int i = cleared; i < count; i++) {
+            int position = HEADER_SIZE + i * RECORD_SIZE;
+            remaining.add(new PlayerScore(readName(nameBuffer, recordBuffer.getInt(position + 8)),
+                    recordBuffer.getInt(position), recordBuffer.getInt(position + 4)));
+        }
+        writeAll(remaining, header.getLong(CSV_STAMP_POSITION), header.getLong(CSV_STAMP_POSITION + 8));
+    }
+
+    private static void readHeader(FileChannel channel, ByteBuffer header) throws IOException {
+        while (header.hasRemaining() && channel.read(header) >= 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+    }
+
+    private void checkHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(recordsFile + " is not a leaderboard store");
+        }
+    }
+
+    private static int clampTime(long timeMillis) {
+        return (int) Math.min(Integer.MAX_VALUE, timeMillis);
+    }
+
+    private static String readName(ByteBuffer buffer, int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeName(String name) {
+        return truncateUtf8(name.getBytes(StandardCharsets.UTF_8), MAX_NAME_BYTES);
+    }
+
+    // At most maxBytes of UTF-8, cut before a character that would not fit
+    // whole rather than through the middle of it
+    static byte[] truncateUtf8(byte[] bytes, int maxBytes) {
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        int end = maxBytes;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--; // A continuation byte, so the character started earlier
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    private void openChannels() throws IOException {
+        if (records == null) {
+            records = FileChannel.open(recordsFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            names = FileChannel.open(namesFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            records.read(header, 0);
+            header.flip();
+            checkHeader(header);
+            recordCount = (int) ((records.size() - HEADER_SIZE) / RECORD_SIZE);
+        }
+    }
+
+    private void closeChannels() {
+        try {
+            if (records != null) {
+                records.close();
+            }
+            if (names != null) {
+                names.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing leaderboard store: " + e.getMessage());
+        }
+        records = null;
+        names = null;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // java -cp ... ArduinoSerialGUI.LeaderboardStore import|export leaderboard.csv [leaderboard.bin]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.out.println("Usage: LeaderboardStore import|export <leaderboard.csv> [leaderboard.bin]");
+            return;
+        }
+        File csv = new File(args[1]);
+        File recordsFile = new File(args.length > 2 ? args[2] : "leaderboard.bin");
+        LeaderboardStore store = new LeaderboardStore(recordsFile, namesFileFor(recordsFile));
+        if (args[0].equals("import")) {
+            System.out.println("Imported " + store.importCsv(csv) + " scores into " + recordsFile);
+        } else {
+            store.exportCsv(csv);
+            System.out.println("Exported " + recordsFile + " to " + csv);
+        }
+        store.close();
+    }
+
+    // leaderboard.bin keeps its names in leaderboard.names
+    static File namesFileFor(File recordsFile) {
+        String path = recordsFile.getPath();
+        int dot = path.lastIndexOf('.');
+        return new File((dot > 0 ? path.substring(0, dot) : path) + ".names");
+    }
+}
@@ -0,0 +1,144 @@
+package ArduinoSerialGUI;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Championship table read straight from the ranked index. Nothing is copied
+// into the model: the table only asks for the rows it actually paints, and
+// rank, time text and points are worked out for those cells on demand.
+//
+// While a driver search is active the rows are the matching drivers' runs
+// instead, still in ranking order and showing their overall position. A broad
+// prefix over a big board takes tens of milliseconds to gather, so the window
+// runs searches on a worker and only swaps the rows in on the EDT; a search
+// overtaken by the next keystroke is dropped.
+final class LeaderboardTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"POS", "DRIVER", "TIME", "LIVES", "POINTS"};
+
+    private final LeaderboardIndex index;
+    private final DriverIndex drivers;
+    private final Executor searcher;
+    private final Executor edt;
+    // Bumped on the EDT by every refresh; a search finding it moved on is stale
+    private volatile int generation;
+    private String filter = "";
+    private List<PlayerScore> filtered;
+    private int rowCount;
+    // JTable asks for every column of a row in turn, so remember the last row
+    private int cachedRow = -1;
+    private PlayerScore cachedScore;
+
+    // Searches run on the calling thread
+    LeaderboardTableModel(LeaderboardIndex index, DriverIndex drivers) {
+        this(index, drivers, Runnable::run, Runnable::run);
+    }
+
+    // Searches run on searcher and their rows are handed back through edt
+    LeaderboardTableModel(LeaderboardIndex index, DriverIndex drivers, Executor searcher, Executor edt) {
+        this.index = index;
+        this.drivers = drivers;
+        this.searcher = searcher;
+        this.edt = edt;
+        this.rowCount = index.size();
+    }
+
+    // Shows only drivers whose name starts with the prefix; blank shows everyone
+    void setFilter(String prefix) {
+        filter = prefix.trim();
+        refresh();
+    }
+
+    String getFilter() {
+        return filter;
+    }
+
+    // Call on the EDT after the index changed. Fires a single table event,
+    // straight away without a filter or once the search is done with one.
+    void refresh() {
+        int current = ++generation;
+        if (filter.isEmpty()) {
+            show(null);
+            return;
+        }
+        String prefix = filter;
+        searcher.execute(() -> {
+            if (current != generation) {
+                return;
+            }
+            List<PlayerScore> runs = drivers.boardRuns(prefix, index);
+            edt.execute(() -> {
+                if (current == generation) {
+                    show(runs);
+                }
+            });
+        });
+    }
+
+    private void show(List<PlayerScore> runs) {
+        filtered = runs;
+        rowCount = filtered == null ? index.size() : filtered.size();
+        cachedRow = -1;
+        cachedScore = null;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make table non-editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        PlayerScore score = scoreAt(row);
+        if (score == null) {
+            return null;
+        }
+        switch (column) {
+            case 0:
+                return filtered == null ? row + 1 : index.positionOf(score);
+            case 1:
+                return score.player;
+            case 2:
+                return PlayerScore.formatRaceTime(score.timeMillis);
+            case 3:
+                return score.livesLeft;
+            case 4:
+                return score.points();
+            default:
+                return null;
+        }
+    }
+
+    private PlayerScore scoreAt(int row) {
+        if (filtered != null) {
+            return row < filtered.size() ? filtered.get(row) : null;
+        }
+        if (row != cachedRow) {
+            // The index may have grown or been cleared since the last refresh
+            if (row >= index.size()) {
+                return null;
+            }
+            cachedScore = index.get(row);
+            cachedRow = row;
+        }
+        return cachedScore;
+    }
+}
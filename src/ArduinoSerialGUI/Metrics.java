@@ -0,0 +1,315 @@
+package ArduinoSerialGUI;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Exports the counters and latency histograms the application already keeps,
+// for looking after kiosks without walking up to them:
+//   -Dbuzzwire.jmx=true          - MBeans under BuzzWire:type=..., for jconsole
+//   -Dbuzzwire.metricsPort=9400  - http://127.0.0.1:9400/metrics in the
+//                                  Prometheus text format
+//
+// Nothing is collected here. Each metric reads a value the code being
+// measured keeps anyway (single-writer volatiles, atomics, LatencyRecorder)
+// when someone asks for it, so the serial threads never wait on a lock or
+// do extra work because metrics are on. Latency quantiles are since startup.
+final class Metrics {
+
+    private static final String PREFIX = "buzzwire_";
+    private static final String DOMAIN = "BuzzWire";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private enum Kind { COUNTER, GAUGE, SUMMARY }
+
+    // station is null for metrics of the whole application. A value in
+    // nanoseconds is exported in seconds.
+    private record Metric(String type, String name, String help, Kind kind, String station,
+                          LongSupplier value, boolean nanos, LatencyRecorder recorder) {
+    }
+
+    private final List<Metric> metrics = new ArrayList<>();
+
+    void counter(String type, String name, String help, LongSupplier value) {
+        metrics.add(new Metric(type, name, help, Kind.COUNTER, null, value, false, null));
+    }
+
+    // A running total of nanoseconds, exported in seconds, with the name ending in _seconds_total
+    void secondsCounter(String type, String name, String help, LongSupplier nanos) {
+        metrics.add(new Metric(type, name, help, Kind.COUNTER, null, nanos, true, null));
+    }
+
+    void gauge(String type, String name, String help, LongSupplier value) {
+        metrics.add(new Metric(type, name, help, Kind.GAUGE, null, value, false, null));
+    }
+
+    // Exported in seconds, with the name ending in _seconds
+    void latency(String type, String name, String help, LatencyRecorder recorder) {
+        metrics.add(new Metric(type, name, help, Kind.SUMMARY, null, null, false, recorder));
+    }
+
+    // Serial ingest and game sessions, one set per station
+    void addStations(List<StationEngine> stations, EventJournal journal) {
+        for (StationEngine station : stations) {
+            String label = String.valueOf(station.getIndex() + 1);
+            addStation("Station", "serial_bytes_total", "Bytes read from the rig", label, station::getBytesRead);
+            addStation("Station", "serial_lines_total", "Lines read from the rig", label, station::getLinesParsed);
+            addStation("Station", "serial_parse_errors_total", "Lines that were not a lives count or command",
+                    label, station::getMalformedLines);
+            addStation("Station", "sessions_started_total", "Races started", label, station::getSessionsStarted);
+            addStation("Station", "sessions_finished_total", "Races that ended", label, station::getSessionsFinished);
+        }
+        counter("Journal", "journal_dropped_events_total", "Events the journal could not keep up with",
+                journal::getDroppedEvents);
+    }
+
+    void addLeaderboard(Leaderboard leaderboard) {
+        gauge("Leaderboard", "leaderboard_size", "Scores on the board", () -> leaderboard.getIndex().size());
+        counter("Leaderboard", "leaderboard_lost_scores_total", "Scores that could not be written to disk",
+                leaderboard::getLostScores);
+        latency("Leaderboard", "leaderboard_load_seconds", "Loading the leaderboard", leaderboard.getLoadTime());
+        latency("Leaderboard", "leaderboard_save_seconds", "Putting a new score on the board",
+                leaderboard.getSaveTime());
+        latency("Leaderboard", "leaderboard_write_seconds", "From a score being saved to it being on disk",
+                leaderboard.getWriteLatency());
+    }
+
+    void addJvm() {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        Runtime runtime = Runtime.getRuntime();
+        gauge("Jvm", "heap_used_bytes", "Heap in use", () -> runtime.totalMemory() - runtime.freeMemory());
+        gauge("Jvm", "heap_max_bytes", "Largest the heap may grow", runtime::maxMemory);
+        counter("Jvm", "gc_collections_total", "Garbage collections", () -> collectors.stream()
+                .mapToLong(collector -> Math.max(0, collector.getCollectionCount())).sum());
+        // The collectors only report whole milliseconds
+        secondsCounter("Jvm", "gc_pause_seconds_total", "Time spent in garbage collection",
+                () -> TimeUnit.MILLISECONDS.toNanos(collectors.stream()
+                        .mapToLong(collector -> Math.max(0, collector.getCollectionTime())).sum()));
+    }
+
+    private void addStation(String type, String name, String help, String station, LongSupplier value) {
+        metrics.add(new Metric(type, name, help, Kind.COUNTER, station, value, false, null));
+    }
+
+    // Turns on whatever export was asked for. Returns false if none was,
+    // so callers can skip any probes that only feed the metrics.
+    boolean start() {
+        boolean started = false;
+        if (Boolean.getBoolean("buzzwire.jmx")) {
+            try {
+                registerMBeans();
+                started = true;
+            } catch (JMException e) {
+                System.out.println("JMX metrics not available: " + e.getMessage());
+            }
+        }
+        int port = Integer.getInteger("buzzwire.metricsPort", 0);
+        if (port > 0) {
+            try {
+                HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 8);
+                server.createContext("/metrics", this::serve);
+                server.start();
+                System.out.println("Metrics on http://" + server.getAddress().getHostString() + ":"
+                        + server.getAddress().getPort() + "/metrics");
+                started = true;
+            } catch (IOException e) {
+                System.out.println("Metrics port " + port + " not available: " + e.getMessage());
+            }
+        }
+        return started;
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().close(); // Keeps the connection open after a 405
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // The Prometheus text format, with the stations of one metric together
+    // under a single HELP and TYPE
+    String render() {
+        Map<String, List<Metric>> byName = new LinkedHashMap<>();
+        for (Metric metric : metrics) {
+            byName.computeIfAbsent(metric.name(), name -> new ArrayList<>()).add(metric);
+        }
+        StringBuilder out = new StringBuilder(4096);
+        for (List<Metric> family : byName.values()) {
+            Metric first = family.get(0);
+            String name = PREFIX + first.name();
+            out.append("# HELP ").append(name).append(' ').append(first.help()).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(first.kind().name().toLowerCase(Locale.ROOT)).append('\n');
+            for (Metric metric : family) {
+                if (metric.kind() != Kind.SUMMARY) {
+                    long value = metric.value().getAsLong();
+                    out.append(name).append(labels(metric.station(), null)).append(' ')
+                            .append(metric.nanos() ? seconds(value) : String.valueOf(value)).append('\n');
+                    continue;
+                }
+                LatencyRecorder recorder = metric.recorder();
+                for (double quantile : QUANTILES) {
+                    out.append(name).append(labels(metric.station(), quantile)).append(' ')
+                            .append(recorder.getCount() == 0 ? "NaN" : seconds(recorder.percentileNanos(quantile)))
+                            .append('\n');
+                }
+                out.append(name).append("_sum").append(labels(metric.station(), null)).append(' ')
+                        .append(seconds(recorder.getTotalNanos())).append('\n');
+                out.append(name).append("_count").append(labels(metric.station(), null)).append(' ')
+                        .append(recorder.getCount()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String labels(String station, Double quantile) {
+        if (station == null && quantile == null) {
+            return "";
+        }
+        StringBuilder labels = new StringBuilder("{");
+        if (station != null) {
+            labels.append("station=\"").append(station).append('"');
+        }
+        if (quantile != null) {
+            labels.append(station != null ? "," : "").append("quantile=\"").append(quantile).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    // One MBean per type and station, e.g. BuzzWire:type=Station,station=2
+    private void registerMBeans() throws JMException {
+        Map<String, Map<String, Supplier<Object>>> beans = new LinkedHashMap<>();
+        for (Metric metric : metrics) {
+            String objectName = DOMAIN + ":type=" + metric.type()
+                    + (metric.station() != null ? ",station=" + metric.station() : "");
+            Map<String, Supplier<Object>> attributes = beans.computeIfAbsent(objectName, name -> new LinkedHashMap<>());
+            String attribute = attributeName(metric.name());
+            if (metric.nanos()) {
+                attributes.put(attribute + "Millis", () -> millis(metric.value().getAsLong()));
+                continue;
+            }
+            if (metric.kind() != Kind.SUMMARY) {
+                attributes.put(attribute, () -> metric.value().getAsLong());
+                continue;
+            }
+            LatencyRecorder recorder = metric.recorder();
+            attributes.put(attribute + "Count", recorder::getCount);
+            attributes.put(attribute + "P50Millis", () -> millis(recorder.percentileNanos(0.50)));
+            attributes.put(attribute + "P99Millis", () -> millis(recorder.percentileNanos(0.99)));
+            attributes.put(attribute + "MaxMillis", () -> millis(recorder.getMaxNanos()));
+        }
+        for (Map.Entry<String, Map<String, Supplier<Object>>> bean : beans.entrySet()) {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new MetricsBean(bean.getValue()), new ObjectName(bean.getKey()));
+        }
+    }
+
+    // serial_lines_total -> SerialLines, leaderboard_load_seconds -> LeaderboardLoad,
+    // gc_pause_seconds_total -> GcPause
+    private static String attributeName(String name) {
+        StringBuilder attribute = new StringBuilder();
+        for (String part : name.replaceAll("(_seconds)?(_total)?$", "").split("_")) {
+            attribute.append(Character.toUpperCase(part.charAt(0))).append(part, 1, part.length());
+        }
+        return attribute.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // Read-only attributes, each worked out when it is read
+    private static final class MetricsBean implements DynamicMBean {
+
+        private final Map<String, Supplier<Object>> attributes;
+        private final MBeanInfo info;
+
+        MetricsBean(Map<String, Supplier<Object>> attributes) {
+            this.attributes = attributes;
+            List<MBeanAttributeInfo> infos = new ArrayList<>();
+            for (Map.Entry<String, Supplier<Object>> attribute : attributes.entrySet()) {
+                String type = attribute.getKey().endsWith("Millis") ? "double" : "long";
+                infos.add(new MBeanAttributeInfo(attribute.getKey(), type, attribute.getKey(), true, false, false));
+            }
+            info = new MBeanInfo(Metrics.class.getName(), "Buzz wire metrics",
+                    infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+
+        @Override
+        public Object getAttribute(String name) throws AttributeNotFoundException {
+            Supplier<Object> attribute = attributes.get(name);
+            if (attribute == null) {
+                throw new AttributeNotFoundException(name);
+            }
+            return attribute.get();
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            AttributeList list = new AttributeList();
+            for (String name : names) {
+                Supplier<Object> attribute = attributes.get(name);
+                if (attribute != null) {
+                    list.add(new Attribute(name, attribute.get()));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList list) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(action));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return info;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ArduinoSerialGUI;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Performance overlay for the kiosk, toggled with F3. Shows frames per
+// second, background paint time, how long events wait in the EDT queue,
+// serial byte-to-label latency, merged UI updates, heap use and garbage
+// collection.
+//
+// The figures are worked out twice a second into ready-made lines, so a
+// paint only draws text. While hidden the HUD stops its timer and probes,
+// and a panel's paint costs one boolean check.
+final class PerfHud {
+
+    private static final int REFRESH_MS = 500;
+    private static final int PROBE_MS = 50;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.BOLD, 13);
+    private static final Color BACKDROP = new Color(0, 0, 0, 170);
+    private static final Color TEXT = new Color(120, 255, 120);
+
+    private final UiBridge uiBridge;
+    private final LatencyRecorder paintTime;
+    private final LatencyRecorder.Window paintWindow;
+    private final LatencyRecorder frames;
+    private final LatencyRecorder.Window serialWindow;
+    private final LatencyRecorder edtDelay = new LatencyRecorder("EDT queue delay");
+    private final LatencyRecorder.Window edtWindow = edtDelay.newWindow();
+    private final List<JComponent> panels = new ArrayList<>();
+    private final Timer refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+    private ScheduledExecutorService prober;
+    // Looked up the first time the HUD is shown, so a kiosk that never
+    // shows it does not start the management classes for it
+    private List<GarbageCollectorMXBean> collectors;
+    private ScheduledFuture<?> probes;
+    private volatile boolean enabled;
+    // Set when the metrics export wants EDT delay with the HUD hidden
+    private boolean keepProbing;
+    private volatile String[] lines = {"Collecting..."};
+    private long lastRefreshNanos;
+    private long lastFrames;
+    private long lastGcCount;
+    private long lastGcMillis;
+    private long lastPosted;
+    private long lastMerged;
+
+    // frames counts every frame shown; paintTime is what each one cost to draw
+    PerfHud(UiBridge uiBridge, LatencyRecorder frames, LatencyRecorder paintTime, LatencyRecorder serialLatency) {
+        this.uiBridge = uiBridge;
+        this.frames = frames;
+        this.paintTime = paintTime;
+        this.paintWindow = paintTime.newWindow();
+        this.serialWindow = serialLatency.newWindow();
+    }
+
+    // A panel that draws the HUD from its paint method
+    void attach(JComponent panel) {
+        panels.add(panel);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // On the EDT
+    void toggle() {
+        setEnabled(!enabled);
+    }
+
+    void setEnabled(boolean enable) {
+        if (enable == enabled) {
+            return;
+        }
+        enabled = enable;
+        if (enable) {
+            if (collectors == null) {
+                collectors = ManagementFactory.getGarbageCollectorMXBeans();
+            }
+            startProbes();
+            startWindows();
+            lines = new String[]{"Collecting..."};
+            refreshTimer.start();
+        } else {
+            if (!keepProbing) {
+                probes.cancel(false);
+                probes = null;
+            }
+            refreshTimer.stop();
+        }
+        repaintPanels();
+    }
+
+    // On the EDT
+    void keepProbing() {
+        keepProbing = true;
+        startProbes();
+    }
+
+    LatencyRecorder getEdtDelay() {
+        return edtDelay;
+    }
+
+    private void startProbes() {
+        if (probes != null) {
+            return;
+        }
+        if (prober == null) {
+            prober = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hud-probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // Timestamped from outside the EDT, so the time to run them is
+        // the time they waited behind everything else in the queue
+        probes = prober.scheduleAtFixedRate(() -> {
+            long posted = System.nanoTime();
+            SwingUtilities.invokeLater(() -> edtDelay.record(System.nanoTime() - posted));
+        }, 0, PROBE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Called at the end of an attached panel's paint, over its children
+    void paint(Graphics g) {
+        String[] text = lines;
+        g.setFont(FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        int lineHeight = metrics.getHeight();
+        int width = 0;
+        for (String line : text) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        g.setColor(BACKDROP);
+        g.fillRect(8, 8, width + 12, lineHeight * text.length + 8);
+        g.setColor(TEXT);
+        for (int i = 0; i < text.length; i++) {
+            g.drawString(text[i], 14, 12 + metrics.getAscent() + i * lineHeight);
+        }
+    }
+
+    private void startWindows() {
+        paintWindow.next();
+        serialWindow.next();
+        edtWindow.next();
+        lastRefreshNanos = System.nanoTime();
+        lastFrames = frames.getCount();
+        lastGcCount = gcCount();
+        lastGcMillis = gcMillis();
+        lastPosted = uiBridge.getPosted();
+        lastMerged = uiBridge.getMerged();
+    }
+
+    private void refresh() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastRefreshNanos) / 1e9);
+        long frameCount = frames.getCount();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long uiPosted = uiBridge.getPosted();
+        long uiMerged = uiBridge.getMerged();
+        paintWindow.next();
+        serialWindow.next();
+        edtWindow.next();
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedMb = (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+        lines = new String[]{
+                String.format(Locale.ROOT, "FPS    %5.1f", (frameCount - lastFrames) / seconds),
+                String.format(Locale.ROOT, "Paint  p50 %6.2f ms  p99 %6.2f ms  (%s)",
+                        millis(paintWindow.percentileNanos(0.50)), millis(paintWindow.percentileNanos(0.99)),
+                        paintTime.getName()),
+                String.format(Locale.ROOT, "EDT    p50 %6.2f ms  p99 %6.2f ms  queue delay",
+                        millis(edtWindow.percentileNanos(0.50)), millis(edtWindow.percentileNanos(0.99))),
+                serialWindow.getCount() == 0
+                        ? "Serial no data in the last " + REFRESH_MS + " ms"
+                        : String.format(Locale.ROOT, "Serial p50 %6.2f ms  p99 %6.2f ms  byte to label",
+                        millis(serialWindow.percentileNanos(0.50)), millis(serialWindow.percentileNanos(0.99))),
+                String.format(Locale.ROOT, "UI     %d updates, %d merged", uiPosted - lastPosted, uiMerged - lastMerged),
+                String.format(Locale.ROOT, "Heap   %d / %d MB", usedMb, runtime.maxMemory() >> 20),
+                String.format(Locale.ROOT, "GC     %d collections, %d ms paused in %.1f s",
+                        gcCount - lastGcCount, gcMillis - lastGcMillis, seconds)
+        };
+        lastRefreshNanos = now;
+        lastFrames = frameCount;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+        lastPosted = uiPosted;
+        lastMerged = uiMerged;
+        repaintPanels();
+    }
+
+    private void repaintPanels() {
+        for (JComponent panel : panels) {
+            panel.repaint();
+        }
+    }
+
+    private long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package ArduinoSerialGUI;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Reads from a named pipe (mkfifo) or a pty such as one end of a socat pair.
+// Opening a FIFO blocks until a writer connects, which is what we want here.
+final class PipeTransport implements SerialTransport {
+
+    private final File path;
+    private InputStream in;
+
+    PipeTransport(File path) {
+        this.path = path;
+    }
+
+    @Override
+    public void open() throws IOException {
+        in = new FileInputStream(path);
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        return in.read(buffer, 0, buffer.length);
+    }
+
+    @Override
+    public String describe() {
+        return "pipe:" + path;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ArduinoSerialGUI;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+// Class to store player scores
+final class PlayerScore {
+    // More lives left is better, then less time
+    static final Comparator<PlayerScore> RANKING = (p1, p2) -> {
+        int livesComparison = Integer.compare(p2.livesLeft, p1.livesLeft);
+        if (livesComparison != 0) {
+            return livesComparison;
+        }
+        return Long.compare(p1.timeMillis, p2.timeMillis);
+    };
+
+    final String player;
+    final long timeMillis;
+    final int livesLeft;
+
+    PlayerScore(String player, long timeMillis, int livesLeft) {
+        this.player = player;
+        this.timeMillis = timeMillis;
+        this.livesLeft = livesLeft;
+    }
+
+    // Championship points: 1000 per life left, minus a point per second
+    int points() {
+        return (livesLeft * 1000) - (int) (timeMillis / 1000);
+    }
+
+    // Race times are shown as m:ss.SSS
+    static String formatRaceTime(long millis) {
+        return String.format("%d:%02d.%03d", millis / 60_000, (millis / 1000) % 60, millis % 1000);
+    }
+
+    // The CSV keeps times in seconds with millisecond decimals, e.g. 83.417.
+    // Older files hold whole seconds, which parse the same way.
+    static String formatSeconds(long millis) {
+        return String.format(Locale.ROOT, "%d.%03d", millis / 1000, millis % 1000);
+    }
+
+    static long parseSeconds(String value) {
+        String text = value.trim();
+        int dot = text.indexOf('.');
+        if (dot < 0) {
+            return Long.parseLong(text) * 1000;
+        }
+        String fraction = (text.substring(dot + 1) + "000").substring(0, 3);
+        return Long.parseLong(text.substring(0, dot)) * 1000 + Integer.parseInt(fraction);
+    }
+}
@@ -0,0 +1,77 @@
+package ArduinoSerialGUI;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+// Wraps another transport and writes every chunk it reads to a capture file
+// that ReplayTransport can play back. Each record is the time since the first
+// open in nanoseconds, the chunk length and the raw bytes. The file is started
+// afresh by the first open and appended to when the rig reconnects, so one
+// capture covers the whole run.
+final class RecordingTransport implements SerialTransport {
+
+    static final int MAGIC = 0x42575331; // "BWS1"
+
+    private final SerialTransport source;
+    private final File captureFile;
+    private DataOutputStream out;
+    private boolean started;
+    private long startNanos;
+
+    RecordingTransport(SerialTransport source, File captureFile) {
+        this.source = source;
+        this.captureFile = captureFile;
+    }
+
+    @Override
+    public void open() throws IOException {
+        source.open();
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(captureFile, started)));
+            if (!started) {
+                out.writeInt(MAGIC);
+                out.flush();
+                started = true;
+                startNanos = System.nanoTime();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        int numRead = source.read(buffer);
+        if (numRead > 0) {
+            out.writeLong(System.nanoTime() - startNanos);
+            out.writeInt(numRead);
+            out.write(buffer, 0, numRead);
+            // Rigs send a few bytes at a time, so flushing keeps the capture
+            // complete if the kiosk is switched off without costing much
+            out.flush();
+        }
+        return numRead;
+    }
+
+    @Override
+    public String describe() {
+        return source.describe() + " (recording to " + captureFile + ")";
+    }
+
+    @Override
+    public void close() {
+        source.close();
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing capture " + captureFile + ": " + e.getMessage());
+        }
+    }
+}
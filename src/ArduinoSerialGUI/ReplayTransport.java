@@ -0,0 +1,95 @@
+package ArduinoSerialGUI;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+// Plays back a capture written by RecordingTransport. With speed 1.0 the chunks
+// arrive with their original spacing, 10.0 plays ten times faster and
+// Double.POSITIVE_INFINITY delivers everything as fast as it can be read.
+final class ReplayTransport implements SerialTransport {
+
+    private final File file;
+    private final double speed;
+    private DataInputStream in;
+    private long startNanos;
+    private byte[] pending = new byte[0];
+    private int pendingPosition;
+
+    ReplayTransport(File file, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.file = file;
+        this.speed = speed;
+    }
+
+    @Override
+    public void open() throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        if (in.readInt() != RecordingTransport.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a serial capture");
+        }
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        if (pendingPosition == pending.length && !nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(buffer.length, pending.length - pendingPosition);
+        System.arraycopy(pending, pendingPosition, buffer, 0, count);
+        pendingPosition += count;
+        return count;
+    }
+
+    private boolean nextChunk() throws IOException {
+        long offsetNanos;
+        try {
+            offsetNanos = in.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        int length = in.readInt();
+        if (pending.length != length) {
+            pending = new byte[length];
+        }
+        in.readFully(pending);
+        pendingPosition = 0;
+
+        if (speed != Double.POSITIVE_INFINITY) {
+            long dueNanos = startNanos + (long) (offsetNanos / speed);
+            long waitNanos;
+            while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                try {
+                    Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String describe() {
+        return "replay:" + file + "@" + speed;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package ArduinoSerialGUI;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Persists saved scores in the background. saveScore only queues the row; one
+// writer thread takes everything that is waiting, appends it to the CSV
+// through a channel that stays open and then to the binary store, and syncs
+// to disk according to the configured policy. close() writes whatever is
+// still queued before returning, so nothing is lost on a normal shutdown.
+//
+// A write that fails costs only the scores it held: they are reported through
+// the error handler, the files are reopened and the writer carries on with
+// the next ones. Queueing never waits, so a stuck disk cannot freeze the EDT;
+// a score that finds the queue full is reported the same way.
+//
+// Sync policy, from -Dbuzzwire.scoreSync:
+//   row          - fsync after every write (the default)
+//   rows:N       - fsync once at least N rows were written since the last one
+//   interval:MS  - fsync at most every MS milliseconds while rows are pending
+// Anything else is reported through the error handler and row is used.
+final class ScoreWriter implements Closeable {
+
+    private static final int QUEUE_CAPACITY = 16 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_NAMED = 10;
+    private static final String CSV_HEADER = "Player,Time,LivesLeft\n";
+
+    private enum Kind { SCORE, CLEAR, END }
+
+    // Clears and the shutdown marker travel through the same queue as the
+    // scores, so they happen exactly between the rows queued before and after
+    private record Pending(Kind kind, PlayerScore score, long queuedNanos) {
+    }
+
+    private final File csvFile;
+    private final LeaderboardStore store;
+    private final int syncEveryRows;
+    private final long syncIntervalNanos;
+    private final Consumer<String> errorHandler;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LatencyRecorder writeLatency = new LatencyRecorder("Score save-to-disk latency");
+    private final AtomicLong lostScores = new AtomicLong();
+    private final Charset charset = Charset.defaultCharset(); // Same as the old FileWriter
+    private final Thread writer;
+    private FileChannel channel;
+    // Set when a write failed, after which the store may be missing rows the
+    // CSV has. The CSV is then left unmatched until the next clear, so the
+    // next start rebuilds the store from it.
+    private boolean storeBehind;
+    // A failed write may have left half a row at the end of the CSV
+    private boolean partialRow;
+    private volatile boolean closed;
+
+    ScoreWriter(File csvFile, LeaderboardStore store, String syncPolicy, Consumer<String> errorHandler) {
+        this.csvFile = csvFile;
+        this.store = store;
+        this.errorHandler = errorHandler;
+
+        // A typo falls back to the safest policy rather than stopping the
+        // application from starting
+        String policy = syncPolicy.trim().toLowerCase(Locale.ROOT);
+        int everyRows = 1;
+        long intervalNanos = 0;
+        boolean valid = true;
+        try {
+            if (policy.startsWith("rows:")) {
+                everyRows = Math.max(1, Integer.parseInt(policy.substring("rows:".length())));
+            } else if (policy.startsWith("interval:")) {
+                long millis = Long.parseLong(policy.substring("interval:".length()));
+                everyRows = 0;
+                intervalNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+                valid = millis > 0;
+            } else {
+                valid = policy.equals("row");
+            }
+        } catch (NumberFormatException e) {
+            valid = false;
+        }
+        if (!valid) {
+            errorHandler.accept("Score sync policy \"" + syncPolicy
+                    + "\" is not row, rows:N or interval:MS, syncing after every row");
+            everyRows = 1;
+            intervalNanos = 0;
+        }
+        syncEveryRows = everyRows;
+        syncIntervalNanos = intervalNanos;
+
+        writer = new Thread(this::writeLoop, "score-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Called on the EDT; never waits for the disk
+    void save(PlayerScore score) {
+        enqueue(Kind.SCORE, score);
+    }
+
+    // Empties the CSV and the binary store once the rows queued before it are written
+    void clear() {
+        enqueue(Kind.CLEAR, null);
+    }
+
+    LatencyRecorder getWriteLatency() {
+        return writeLatency;
+    }
+
+    // Scores that made it onto the board but not into the files
+    long getLostScores() {
+        return lostScores.get();
+    }
+
+    private void enqueue(Kind kind, PlayerScore score) {
+        if (!closed && queue.offer(new Pending(kind, score, System.nanoTime()))) {
+            return;
+        }
+        String reason = closed ? "the score writer has stopped" : "the disk is too far behind";
+        if (kind == Kind.SCORE) {
+            lost(List.of(score), "not saved to disk: " + reason);
+        } else {
+            errorHandler.accept("Leaderboard reset not saved to disk: " + reason);
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        long lastSyncNanos = System.nanoTime();
+        int rowsSinceSync = 0;
+        boolean running = true;
+        try {
+            while (running) {
+                // With an interval policy, wake up in time to sync what is pending
+                Pending first;
+                if (rowsSinceSync > 0 && syncIntervalNanos > 0) {
+                    long waitNanos = lastSyncNanos + syncIntervalNanos - System.nanoTime();
+                    first = queue.poll(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+                } else {
+                    first = queue.take();
+                }
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    running = batch.stream().noneMatch(pending -> pending.kind() == Kind.END);
+                }
+
+                try {
+                    if (first != null) {
+                        writeBatch(batch);
+                        rowsSinceSync += batch.size();
+                    }
+                    boolean due = syncEveryRows > 0
+                            ? rowsSinceSync >= syncEveryRows
+                            : rowsSinceSync > 0 && System.nanoTime() - lastSyncNanos >= syncIntervalNanos;
+                    if ((due || !running) && channel != null) {
+                        channel.force(false);
+                        store.force();
+                        lastSyncNanos = System.nanoTime();
+                        rowsSinceSync = 0;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failed(batch, e);
+                    rowsSinceSync = 0;
+                    batch.clear();
+                    continue;
+                }
+
+                long writtenNanos = System.nanoTime();
+                for (Pending pending : batch) {
+                    if (pending.kind() == Kind.SCORE) {
+                        writeLatency.record(writtenNanos - pending.queuedNanos());
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+            closeFiles();
+            // Anything queued after the end marker, or left by a thread that died
+            batch.clear();
+            queue.drainTo(batch);
+            lost(scoresIn(batch), "not saved to disk: the score writer has stopped");
+        }
+    }
+
+    // Up to the END marker, if the batch has one
+    private void writeBatch(List<Pending> batch) throws IOException {
+        StringBuilder rows = new StringBuilder(batch.size() * 24);
+        int firstRow = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            if (pending.kind() == Kind.SCORE) {
+                LeaderboardStore.appendCsvRow(rows, pending.score());
+                continue;
+            }
+            writeScores(rows, batch, firstRow, i);
+            rows.setLength(0);
+            firstRow = i + 1;
+            if (pending.kind() == Kind.END) {
+                return;
+            }
+            openChannel();
+            channel.truncate(0);
+            partialRow = false;
+            store.clear();
+            storeBehind = false; // Both are empty again
+            store.matchCsv(csvFile);
+        }
+        writeScores(rows, batch, firstRow, batch.size());
+    }
+
+    // The CSV first: should the store then fail, the CSV has every row and
+    // the store is rebuilt from it at the next start
+    private void writeScores(CharSequence rows, List<Pending> batch, int from, int to) throws IOException {
+        if (rows.length() == 0) {
+            return;
+        }
+        openChannel();
+        // A brand new or just cleared file gets the header first
+        String text = channel.size() == 0 ? CSV_HEADER + rows : (partialRow ? "\n" : "") + rows;
+        ByteBuffer buffer = charset.encode(text);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        partialRow = false;
+        for (int i = from; i < to; i++) {
+            store.append(batch.get(i).score());
+        }
+        if (!storeBehind) {
+            // So the next start knows the CSV was written by us, not edited
+            store.matchCsv(csvFile);
+        }
+    }
+
+    private void failed(List<Pending> batch, Exception e) {
+        storeBehind = true;
+        partialRow = true;
+        lost(scoresIn(batch), "may not have been saved to disk: " + e.getMessage());
+        if (batch.stream().anyMatch(pending -> pending.kind() == Kind.CLEAR)) {
+            errorHandler.accept("Leaderboard reset may not have been saved to disk: " + e.getMessage());
+        }
+        // Reopened for the next batch, in case the handles went bad
+        closeFiles();
+    }
+
+    // One message per failed batch, naming the first few scores in it
+    private void lost(List<PlayerScore> scores, String problem) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        lostScores.addAndGet(scores.size());
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < scores.size() && i < MAX_NAMED; i++) {
+            PlayerScore score = scores.get(i);
+            names.append(i > 0 ? ", " : "").append(score.player)
+                    .append(' ').append(PlayerScore.formatRaceTime(score.timeMillis));
+        }
+        if (scores.size() > MAX_NAMED) {
+            names.append(" and ").append(scores.size() - MAX_NAMED).append(" more");
+        }
+        errorHandler.accept((scores.size() == 1 ? "Score" : scores.size() + " scores")
+                + " (" + names + ") " + problem);
+    }
+
+    private static List<PlayerScore> scoresIn(List<Pending> batch) {
+        List<PlayerScore> scores = new ArrayList<>();
+        for (Pending pending : batch) {
+            if (pending.kind() == Kind.SCORE) {
+                scores.add(pending.score());
+            }
+        }
+        return scores;
+    }
+
+    private void openChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(csvFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private void closeFiles() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing " + csvFile + ": " + e.getMessage());
+        }
+        channel = null;
+        store.close();
+    }
+
+    // Writes and syncs everything queued so far, then stops the writer thread
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            // The marker waits for room behind rows still being written
+            while (writer.isAlive()
+                    && !queue.offer(new Pending(Kind.END, null, System.nanoTime()), 100, TimeUnit.MILLISECONDS)) {
+                // Try again until it fits or the writer has stopped
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ArduinoSerialGUI;
+
+// Streaming parser for the Arduino text protocol. Bytes are fed in as they come
+// off the wire; a line may be split across any number of reads. Lives counts
+// are parsed straight from the bytes and the two commands are matched without
+// building Strings, so a steady stream of lines does not allocate.
+final class SerialLineParser {
+
+    // Longest line the Arduino sends is "Reset Timer"; anything much longer is noise
+    private static final int MAX_LINE = 64;
+    // More digits than this would overflow an int and cannot be a lives count
+    private static final int MAX_DIGITS = 9;
+
+    private static final byte[] RESTART = ascii("restart");
+    private static final byte[] RESET_TIMER = ascii("reset timer");
+
+    interface Listener {
+        void onLives(int lives, long arrivalNanos);
+
+        void onRestart(long arrivalNanos);
+
+        void onResetTimer(long arrivalNanos);
+
+        default void onMalformedLine(long arrivalNanos) {
+        }
+    }
+
+    private final Listener listener;
+    // Reused for every line; holds the unfinished tail between reads
+    private final byte[] line = new byte[MAX_LINE];
+    private int length;
+    private boolean overflow;
+    private long linesParsed;
+    private long malformedLines;
+
+    SerialLineParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    void feed(byte[] buffer, int offset, int count, long arrivalNanos) {
+        int end = offset + count;
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+            if (b == '\n' || b == '\r') {
+                if (length > 0 || overflow) {
+                    dispatch(arrivalNanos);
+                }
+                length = 0;
+                overflow = false;
+            } else if (length < MAX_LINE) {
+                line[length++] = b;
+            } else {
+                overflow = true;
+            }
+        }
+    }
+
+    // Drops any partial line, e.g. after the port was reopened
+    void reset() {
+        length = 0;
+        overflow = false;
+    }
+
+    long getLinesParsed() {
+        return linesParsed;
+    }
+
+    long getMalformedLines() {
+        return malformedLines;
+    }
+
+    private void dispatch(long arrivalNanos) {
+        linesParsed++;
+        int start = 0;
+        int stop = length;
+        while (start < stop && isBlank(line[start])) {
+            start++;
+        }
+        while (stop > start && isBlank(line[stop - 1])) {
+            stop--;
+        }
+
+        if (!overflow && start < stop) {
+            int lives = parseDigits(start, stop);
+            if (lives >= 0) {
+                listener.onLives(lives, arrivalNanos);
+                return;
+            }
+            if (matches(RESTART, start, stop)) {
+                listener.onRestart(arrivalNanos);
+                return;
+            }
+            if (matches(RESET_TIMER, start, stop)) {
+                listener.onResetTimer(arrivalNanos);
+                return;
+            }
+        }
+        malformedLines++;
+        listener.onMalformedLine(arrivalNanos);
+    }
+
+    // Returns the value of an all-digit line, or -1 if it is not one
+    private int parseDigits(int start, int stop) {
+        if (stop - start > MAX_DIGITS) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < stop; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Case-insensitive ASCII comparison against a lower-case keyword
+    private boolean matches(byte[] keyword, int start, int stop) {
+        if (stop - start != keyword.length) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            int b = line[start + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static byte[] ascii(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,66 @@
+package ArduinoSerialGUI;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+// Source of raw bytes from a buzz-wire rig. The real Arduino is one
+// implementation; the others let ingest run without any hardware attached.
+interface SerialTransport extends Closeable {
+
+    void open() throws IOException;
+
+    // Blocks until at least one byte is available and returns how many were
+    // copied into the buffer, or -1 once the stream has ended
+    int read(byte[] buffer) throws IOException;
+
+    String describe();
+
+    @Override
+    void close();
+
+    // Builds a transport from a port spec:
+    //   COM6, /dev/ttyACM0        - serial port through jSerialComm
+    //   pipe:/tmp/buzz            - named pipe or pty opened as a plain file
+    //   replay:capture.bin        - recorded capture at original speed
+    //   replay:capture.bin@10     - recorded capture at 10x speed ("max" for no delays)
+    //   sim:scenario.txt          - a simulated rig playing a scenario script
+    static SerialTransport fromSpec(String spec) {
+        if (spec.startsWith("pipe:")) {
+            return new PipeTransport(new File(spec.substring("pipe:".length())));
+        }
+        if (spec.startsWith("replay:")) {
+            String path = spec.substring("replay:".length());
+            double speed = 1.0;
+            int at = path.lastIndexOf('@');
+            if (at > 0) {
+                speed = replaySpeed(path.substring(at + 1));
+                path = path.substring(0, at);
+            }
+            return new ReplayTransport(new File(path), speed);
+        }
+        if (spec.startsWith("sim:")) {
+            return new SimulatorTransport(new File(spec.substring("sim:".length())), System.nanoTime(),
+                    SimulatorTransport.DEFAULT_BUFFER, new LatencyRecorder("Simulator pickup lag"));
+        }
+        return new JSerialCommTransport(spec, 9600);
+    }
+
+    // A speed that is not a positive number plays at the original speed
+    // rather than stopping the application from starting
+    private static double replaySpeed(String factor) {
+        if (factor.equalsIgnoreCase("max")) {
+            return Double.POSITIVE_INFINITY;
+        }
+        try {
+            double speed = Double.parseDouble(factor);
+            if (speed > 0) {
+                return speed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        System.out.println("Replay speed \"" + factor + "\" is not a positive number or max, playing at 1x");
+        return 1.0;
+    }
+}
@@ -0,0 +1,120 @@
+package ArduinoSerialGUI;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+// A rig played by ArduinoSimulator instead of a cable. Lines arrive at the
+// times the scenario gives them whether or not anyone is reading, into a
+// receive buffer the size of a USB serial driver's; when the reader falls
+// that far behind, new lines are lost the way a real port overruns.
+final class SimulatorTransport implements SerialTransport {
+
+    static final int DEFAULT_BUFFER = 4096;
+
+    private final File script;
+    private final long seed;
+    private final byte[] received;
+    private final LatencyRecorder pickupLag;
+    private ArduinoSimulator simulator;
+    private boolean hasEvent;
+    private long startNanos;
+    private int readPosition;
+    private int writePosition;
+    // Written only by the reading thread
+    private volatile long linesSent;
+    private volatile long linesOverrun;
+    private volatile boolean ended;
+
+    SimulatorTransport(File script, long seed, int bufferSize, LatencyRecorder pickupLag) {
+        this.script = script;
+        this.seed = seed;
+        this.received = new byte[bufferSize];
+        this.pickupLag = pickupLag;
+    }
+
+    @Override
+    public void open() throws IOException {
+        // Each open starts the scenario over, like plugging the rig back in
+        simulator = ArduinoSimulator.load(script, seed);
+        hasEvent = simulator.next();
+        readPosition = 0;
+        writePosition = 0;
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public int read(byte[] buffer) throws IOException {
+        while (true) {
+            long now = System.nanoTime();
+            receiveDue(now);
+            if (writePosition > readPosition) {
+                int count = Math.min(buffer.length, writePosition - readPosition);
+                System.arraycopy(received, readPosition, buffer, 0, count);
+                readPosition += count;
+                return count;
+            }
+            if (!hasEvent) {
+                ended = true;
+                return -1;
+            }
+            LockSupport.parkNanos(startNanos + simulator.dueNanos() - now);
+            if (Thread.interrupted()) {
+                throw new IOException("Interrupted");
+            }
+        }
+    }
+
+    // Everything that has been sent by now goes into the receive buffer, or
+    // is lost if it no longer fits
+    private void receiveDue(long now) {
+        if (readPosition == writePosition) {
+            readPosition = 0;
+            writePosition = 0;
+        }
+        while (hasEvent && startNanos + simulator.dueNanos() - now <= 0) {
+            int length = simulator.eventLength();
+            if (writePosition + length > received.length && readPosition > 0) {
+                System.arraycopy(received, readPosition, received, 0, writePosition - readPosition);
+                writePosition -= readPosition;
+                readPosition = 0;
+            }
+            if (writePosition + length <= received.length) {
+                System.arraycopy(simulator.eventBytes(), 0, received, writePosition, length);
+                writePosition += length;
+                linesSent++;
+                // How long after it was sent the reader came for it
+                pickupLag.record(now - startNanos - simulator.dueNanos());
+            } else {
+                linesOverrun++;
+            }
+            hasEvent = simulator.next();
+        }
+    }
+
+    // Lines that made it into the receive buffer
+    long getLinesSent() {
+        return linesSent;
+    }
+
+    // Lines lost because the reader was too far behind
+    long getLinesOverrun() {
+        return linesOverrun;
+    }
+
+    // The scenario has played out and the reader has had every line
+    boolean isEnded() {
+        return ended;
+    }
+
+    @Override
+    public String describe() {
+        return "sim:" + script;
+    }
+
+    @Override
+    public void close() {
+        simulator = null;
+        hasEvent = false;
+    }
+}
@@ -0,0 +1,185 @@
+package ArduinoSerialGUI;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs stations against simulated rigs for as long as asked, with the real
+// engine, journal and leaderboard writing into a scratch directory, and
+// prints how they held up:
+//   SoakTest scenario.txt [stations] [duration] [report every]
+//   SoakTest chatter.txt 4 8h 1m
+//
+// Each report gives, since the one before:
+//   lines     - sent by the rigs, parsed by the stations, malformed among
+//               them, overrun (lost in a full receive buffer) and lost
+//               (sent but never parsed; only final once the rigs are done)
+//   pickup    - from a line being sent to the station reading it
+//   ingest    - from reading the line to the engine having applied it
+//   journal   - events the journal had to drop
+//   heap      - in use after a full collection, and its growth per hour
+//               since the first report
+final class SoakTest implements StationEngine.Listener {
+
+    private static final int TICK_MS = 100;
+
+    private final List<SimulatorTransport> transports = new ArrayList<>();
+    private final List<StationEngine> stations;
+    private final EventJournal journal;
+    private final Leaderboard leaderboard;
+    private final LatencyRecorder pickupLag = new LatencyRecorder("Pickup lag");
+    private final LatencyRecorder ingestLatency = new LatencyRecorder("Ingest latency");
+    private final LatencyRecorder.Window pickupWindow = pickupLag.newWindow();
+    private final LatencyRecorder.Window ingestWindow = ingestLatency.newWindow();
+    private final ScheduledExecutorService engineThread = Executors.newSingleThreadScheduledExecutor(
+            r -> new Thread(r, "engine"));
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> new Thread(r, "score-saver"));
+    private final AtomicLong scoresSaved = new AtomicLong();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final long startNanos = System.nanoTime();
+    private long firstHeap = -1;
+    private long firstHeapNanos;
+
+    SoakTest(File scenario, int stationCount, File directory) throws IOException {
+        List<SerialTransport> list = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            SimulatorTransport transport = new SimulatorTransport(scenario, System.nanoTime() + i,
+                    SimulatorTransport.DEFAULT_BUFFER, pickupLag);
+            transports.add(transport);
+            list.add(transport);
+        }
+        journal = EventJournal.open(new File(directory, "events.journal"));
+        stations = StationEngine.createAll(list, journal, this);
+        leaderboard = new Leaderboard(new File(directory, "leaderboard.csv"), new File(directory, "leaderboard.bin"),
+                Integer.getInteger("buzzwire.topK", 0), System.getProperty("buzzwire.scoreSync", "row"),
+                message -> System.out.println("Leaderboard error: " + message));
+        leaderboard.load();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: SoakTest scenario.txt [stations] [duration] [report every]");
+            return;
+        }
+        System.setProperty("java.awt.headless", "true");
+        File scenario = new File(args[0]);
+        ArduinoSimulator.load(scenario, 0); // Report script errors before anything starts
+        int stationCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long durationNanos = args.length > 2 ? ArduinoSimulator.duration(args[2]) : Long.MAX_VALUE;
+        long reportNanos = args.length > 3 ? ArduinoSimulator.duration(args[3]) : 60_000_000_000L;
+
+        File directory = Files.createTempDirectory("buzzwire-soak").toFile();
+        System.out.println("Soak test of " + scenario + " on " + stationCount + " station(s), files in " + directory);
+        new SoakTest(scenario, stationCount, directory).run(durationNanos, reportNanos);
+    }
+
+    void run(long durationNanos, long reportNanos) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        for (StationEngine station : stations) {
+            station.start();
+        }
+        engineThread.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            for (StationEngine station : stations) {
+                station.checkTimeLimit(now);
+            }
+            boolean allEnded = transports.stream().allMatch(SimulatorTransport::isEnded);
+            if (allEnded || now - startNanos >= durationNanos) {
+                done.countDown();
+            }
+        }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        engineThread.scheduleAtFixedRate(this::report, reportNanos, reportNanos, TimeUnit.NANOSECONDS);
+
+        done.await();
+        engineThread.shutdown();
+        engineThread.awaitTermination(10, TimeUnit.SECONDS);
+        saver.shutdown();
+        saver.awaitTermination(10, TimeUnit.SECONDS);
+        report();
+        journal.close();
+        leaderboard.close();
+        System.out.println("Total: " + pickupLag.summary());
+        System.out.println("Total: " + ingestLatency.summary());
+        System.out.println(leaderboard.getWriteLatency().summary());
+        System.exit(0); // The serial threads of rigs that never end are still reading
+    }
+
+    @Override
+    public void onChange(StationEngine station, GameState previous, GameState next, long nanos, boolean fromSerial) {
+        if (fromSerial) {
+            ingestLatency.record(System.nanoTime() - nanos);
+        }
+        if (!previous.gameOver() && next.gameOver()) {
+            // Saved off the serial thread, the way the window does after the
+            // driver has typed a name
+            saver.execute(() -> {
+                leaderboard.save(station.score("SOAK" + (station.getIndex() + 1)));
+                scoresSaved.incrementAndGet();
+            });
+        }
+    }
+
+    @Override
+    public void onStatus(StationEngine station, String message) {
+        System.out.println(station.getName() + ": " + message);
+    }
+
+    @Override
+    public void onConnected(StationEngine station) {
+    }
+
+    private void report() {
+        // Parsed before sent, so a line in flight never shows up as negative loss
+        long parsed = 0;
+        long malformed = 0;
+        for (StationEngine station : stations) {
+            parsed += station.getLinesParsed();
+            malformed += station.getMalformedLines();
+        }
+        long sent = 0;
+        long overrun = 0;
+        for (SimulatorTransport transport : transports) {
+            sent += transport.getLinesSent();
+            overrun += transport.getLinesOverrun();
+        }
+        pickupWindow.next();
+        ingestWindow.next();
+
+        // A full collection first, so growth means live objects and not garbage
+        System.gc();
+        long now = System.nanoTime();
+        long heap = memory.getHeapMemoryUsage().getUsed();
+        if (firstHeap < 0) {
+            firstHeap = heap;
+            firstHeapNanos = now;
+        }
+        double hours = (now - firstHeapNanos) / 3_600_000_000_000.0;
+        double growthPerHour = hours > 0 ? (heap - firstHeap) / hours : 0;
+
+        System.out.println(String.format(Locale.ROOT,
+                "[%s] lines sent=%d parsed=%d malformed=%d overrun=%d lost=%d"
+                        + " | pickup p50=%.1fus p99=%.1fus | ingest p50=%.1fus p99=%.1fus"
+                        + " | journal dropped=%d | scores=%d | heap=%.1fMB growth=%+.2fMB/h",
+                elapsed(now - startNanos), sent, parsed, malformed, overrun, sent - parsed,
+                pickupWindow.percentileNanos(0.5) / 1000.0, pickupWindow.percentileNanos(0.99) / 1000.0,
+                ingestWindow.percentileNanos(0.5) / 1000.0, ingestWindow.percentileNanos(0.99) / 1000.0,
+                journal.getDroppedEvents(), scoresSaved.get(),
+                heap / 1048576.0, growthPerHour / 1048576.0));
+    }
+
+    private static String elapsed(long nanos) {
+        long seconds = nanos / 1_000_000_000L;
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
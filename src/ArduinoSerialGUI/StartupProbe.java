@@ -0,0 +1,61 @@
+package ArduinoSerialGUI;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Reports how long after the process started the first frame was painted
+// and the first station had its serial port open, once each. With
+// -Dbuzzwire.startupBenchmark=true the process exits as soon as both are
+// known (or after TIMEOUT_MS), so a script can time many cold starts.
+final class StartupProbe {
+
+    private static final long TIMEOUT_MS = 30_000;
+
+    private final boolean benchmark = Boolean.getBoolean("buzzwire.startupBenchmark");
+    private final AtomicBoolean frameShown;
+    private final AtomicBoolean serialReady = new AtomicBoolean();
+
+    // Without a window there is no frame to wait for
+    StartupProbe(boolean hasWindow) {
+        frameShown = new AtomicBoolean(!hasWindow);
+        if (benchmark) {
+            Thread timeout = new Thread(() -> {
+                try {
+                    Thread.sleep(TIMEOUT_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                System.out.println("Startup: not ready after " + TIMEOUT_MS + " ms");
+                System.exit(1);
+            }, "startup-timeout");
+            timeout.setDaemon(true);
+            timeout.start();
+        }
+    }
+
+    boolean isFrameShown() {
+        return frameShown.get();
+    }
+
+    void frameShown() {
+        if (frameShown.compareAndSet(false, true)) {
+            report("first frame");
+        }
+    }
+
+    void serialReady(String station) {
+        if (serialReady.compareAndSet(false, true)) {
+            report("serial ready (" + station + ")");
+        }
+    }
+
+    private void report(String milestone) {
+        long now = System.currentTimeMillis();
+        // Read only now, so loading the management classes is not counted
+        long startMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("Startup: " + milestone + " after " + (now - startMillis) + " ms");
+        if (benchmark && frameShown.get() && serialReady.get()) {
+            System.exit(0);
+        }
+    }
+}
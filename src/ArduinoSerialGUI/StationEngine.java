@@ -0,0 +1,281 @@
+package ArduinoSerialGUI;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+// The game rules for one buzz-wire rig, with no user interface: it reads the
+// rig's serial port, moves between game states, enforces the race time
+// limit, journals what happened and turns a finished race into a score.
+// The Swing window and the headless mode both drive stations through this
+// class and only decide how to show the result.
+final class StationEngine {
+
+    static final long MAX_RUN_NANOS = 180_000_000_000L; // 3 minute race limit
+
+    private static final long RECONNECT_DELAY_MS = 2000;
+    private static final long SERIAL_THREAD_STACK_SIZE = 256 * 1024;
+
+    interface Listener {
+        // Called on the thread that made the change, which is usually a
+        // serial thread. nanos is when the event happened.
+        void onChange(StationEngine station, GameState previous, GameState next, long nanos, boolean fromSerial);
+
+        // Connection trouble worth showing in place of the lives
+        void onStatus(StationEngine station, String message);
+
+        // The port is open and being read, on the serial thread
+        void onConnected(StationEngine station);
+    }
+
+    private final int index;
+    private final String name;
+    private final SerialTransport transport;
+    private final EventJournal journal;
+    private final Listener listener;
+    // Written by the serial thread and whoever presses the buttons, only
+    // through apply(). Clock stamps are taken where the event happened
+    // (usually the serial thread), not when the user interface got to it.
+    private final AtomicReference<GameState> state = new AtomicReference<>(GameState.initial(System.nanoTime()));
+    // Ingest totals, written only by the serial thread and readable anywhere
+    private volatile long bytesRead;
+    private volatile long linesParsed;
+    private volatile long malformedLines;
+    // Changed by whichever thread applied the transition
+    private final AtomicLong sessionsStarted = new AtomicLong();
+    private final AtomicLong sessionsFinished = new AtomicLong();
+
+    StationEngine(int index, String name, SerialTransport transport, EventJournal journal, Listener listener) {
+        this.index = index;
+        this.name = name;
+        this.transport = transport;
+        this.journal = journal;
+        this.listener = listener;
+    }
+
+    // One station per transport, named STATION 1, STATION 2 and so on. With
+    // -Dbuzzwire.capture every rig's raw bytes are also recorded.
+    static List<StationEngine> createAll(List<SerialTransport> transports, EventJournal journal, Listener listener) {
+        String capture = System.getProperty("buzzwire.capture");
+        List<StationEngine> stations = new ArrayList<>();
+        for (int i = 0; i < transports.size(); i++) {
+            SerialTransport transport = transports.get(i);
+            if (capture != null) {
+                String captureFile = transports.size() == 1 ? capture : capture + "." + (i + 1);
+                transport = new RecordingTransport(transport, new File(captureFile));
+            }
+            stations.add(new StationEngine(i, "STATION " + (i + 1), transport, journal, listener));
+        }
+        return stations;
+    }
+
+    // Several rigs are given as a comma separated list, e.g. COM6,COM7,COM8
+    static List<SerialTransport> parseTransports(String ports) {
+        List<SerialTransport> transports = new ArrayList<>();
+        for (String port : ports.split(",")) {
+            if (!port.trim().isEmpty()) {
+                transports.add(SerialTransport.fromSpec(port.trim()));
+            }
+        }
+        return transports;
+    }
+
+    // "none" turns the journal off
+    static EventJournal openJournal(String path) {
+        if (path.isEmpty() || path.equalsIgnoreCase("none")) {
+            return EventJournal.disabled();
+        }
+        try {
+            return EventJournal.open(new File(path));
+        } catch (IOException e) {
+            System.out.println("Event journal disabled: " + e.getMessage());
+            return EventJournal.disabled();
+        }
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    GameState currentState() {
+        return state.get();
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    long getLinesParsed() {
+        return linesParsed;
+    }
+
+    long getMalformedLines() {
+        return malformedLines;
+    }
+
+    long getSessionsStarted() {
+        return sessionsStarted.get();
+    }
+
+    long getSessionsFinished() {
+        return sessionsFinished.get();
+    }
+
+    // Starts the clock on full lives, as a freshly powered rig expects, and
+    // begins reading it
+    void start() {
+        resetTimer();
+        // The reader spends its life blocked in read(), so a small stack is
+        // plenty and keeps the cost of every extra station low
+        Thread serialThread = new Thread(null, this::listenToSerial,
+                "serial-" + transport.describe(), SERIAL_THREAD_STACK_SIZE);
+        serialThread.setDaemon(true);
+        serialThread.start();
+    }
+
+    // Full lives and a fresh clock
+    void restart() {
+        long now = System.nanoTime();
+        apply(JournalEvent.Type.RESTART, now, 0, s -> s.restart(now), false);
+    }
+
+    // Pauses the clock without ending the game
+    void stopClock() {
+        long now = System.nanoTime();
+        apply(JournalEvent.Type.STOP, now, 0, s -> s.stopClock(now), false);
+    }
+
+    void finish() {
+        long now = System.nanoTime();
+        apply(JournalEvent.Type.FINISH, now, 0, s -> s.finish(now), false);
+    }
+
+    void resetTimer() {
+        long now = System.nanoTime();
+        apply(JournalEvent.Type.RESET_TIMER, now, 0, s -> s.resetTimer(now), false);
+    }
+
+    // Ends a run that has gone past the time limit. Returns true if it did.
+    boolean checkTimeLimit(long nowNanos) {
+        GameState current = state.get();
+        if (current.clockRunning() && !current.gameOver()) {
+            long limitNanos = current.runStartNanos() + MAX_RUN_NANOS;
+            if (nowNanos >= limitNanos) {
+                // Only end the run that was looked at, not one restarted meanwhile
+                apply(JournalEvent.Type.FINISH, limitNanos, 0, s -> s == current ? s.finish(limitNanos) : s, false);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The score for the race that just ended, journaled under the driver's name
+    PlayerScore score(String driver) {
+        GameState finalState = state.get();
+        long now = System.nanoTime();
+        int livesLeft = finalState.attempts();
+        long timeMillis = finalState.elapsedMillis(now);
+        journal.append(JournalEvent.score(index, now, driver, timeMillis, livesLeft));
+        return new PlayerScore(driver, timeMillis, livesLeft);
+    }
+
+    // Moves to the next state with compare-and-set, retrying if another thread
+    // got there first, then tells the listener. Everything read from the rig
+    // is journaled; button presses only when they changed something.
+    private void apply(JournalEvent.Type type, long nanos, int value,
+                       UnaryOperator<GameState> transition, boolean fromSerial) {
+        GameState previous;
+        GameState next;
+        do {
+            previous = state.get();
+            next = transition.apply(previous);
+        } while (!state.compareAndSet(previous, next));
+
+        if (fromSerial || next != previous) {
+            journal.append(type, index, nanos, value);
+        }
+        // Whatever starts the clock starts a run: the station starting up, a
+        // restart or a reset timer after a stop or game over. A restart with
+        // the clock already running replaces the run and is not counted again.
+        if (!previous.clockRunning() && next.clockRunning()) {
+            sessionsStarted.incrementAndGet();
+        }
+        if (!previous.gameOver() && next.gameOver()) {
+            sessionsFinished.incrementAndGet();
+        }
+        listener.onChange(this, previous, next, nanos, fromSerial);
+    }
+
+    private void listenToSerial() {
+        SerialLineParser parser = new SerialLineParser(new SerialLineParser.Listener() {
+            @Override
+            public void onLives(int lives, long arrivalNanos) {
+                // Ignored once the game is over; zero lives ends the game
+                apply(JournalEvent.Type.BUZZ, arrivalNanos, lives, s -> s.buzz(lives, arrivalNanos), true);
+            }
+
+            @Override
+            public void onRestart(long arrivalNanos) {
+                apply(JournalEvent.Type.RESTART, arrivalNanos, 0, s -> s.restart(arrivalNanos), true);
+            }
+
+            @Override
+            public void onResetTimer(long arrivalNanos) {
+                apply(JournalEvent.Type.RESET_TIMER, arrivalNanos, 0, s -> s.resetTimer(arrivalNanos), true);
+            }
+        });
+
+        // Keep the station alive across unplugged cables and flaky ports
+        byte[] buffer = new byte[1024];
+        while (true) {
+            try {
+                transport.open();
+            } catch (IOException e) {
+                listener.onStatus(this, "Failed to open port");
+                System.out.println(name + ": " + e.getMessage());
+                if (!waitBeforeReconnect()) {
+                    return;
+                }
+                continue;
+            }
+            listener.onConnected(this);
+
+            try {
+                int numRead;
+                while ((numRead = transport.read(buffer)) >= 0) {
+                    parser.feed(buffer, 0, numRead, System.nanoTime());
+                    bytesRead += numRead;
+                    linesParsed = parser.getLinesParsed();
+                    malformedLines = parser.getMalformedLines();
+                }
+                return; // End of stream, e.g. a finished replay
+            } catch (Exception e) {
+                listener.onStatus(this, "Error: " + e.getMessage());
+            } finally {
+                transport.close();
+                parser.reset();
+            }
+            if (!waitBeforeReconnect()) {
+                return;
+            }
+        }
+    }
+
+    private boolean waitBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ArduinoSerialGUI;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands UI updates from the serial threads to the EDT without flooding it.
+// Only the latest update per key is kept, so a noisy wire that sends
+// hundreds of lines between two frames costs one label update. At most one
+// flush is queued on the EDT at a time, and flushes are at least a frame
+// apart; one-off events such as game over are never merged and run after
+// the updates, in the order they were posted.
+//
+// An update can carry the time the data behind it arrived. When updates are
+// merged the oldest time is kept, so the latency recorded when the merged
+// update is applied is that of the longest wait, not the shortest.
+final class UiBridge {
+
+    private record Pending(Runnable update, long arrivalNanos) {
+    }
+
+    private final long frameNanos;
+    private final LatencyRecorder arrivalLatency;
+    private final Map<Object, Pending> latest = new ConcurrentHashMap<>();
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    // EDT only
+    private long lastFlushNanos;
+    private Timer delay;
+
+    // arrivalLatency gets, for every applied update that carries an arrival
+    // time, how long ago that was
+    UiBridge(int frameMillis, LatencyRecorder arrivalLatency) {
+        this.frameNanos = TimeUnit.MILLISECONDS.toNanos(frameMillis);
+        this.arrivalLatency = arrivalLatency;
+    }
+
+    // Replaces any update for the same key that has not been applied yet
+    void post(Object key, Runnable update) {
+        post(key, update, 0);
+    }
+
+    // arrivalNanos is the System.nanoTime() the data arrived at, or 0 for none
+    void post(Object key, Runnable update, long arrivalNanos) {
+        posted.incrementAndGet();
+        Pending pending = new Pending(update, arrivalNanos);
+        if (latest.merge(key, pending, UiBridge::newer) != pending) {
+            merged.incrementAndGet();
+        }
+        schedule();
+    }
+
+    // The newer update, with the older arrival time
+    private static Pending newer(Pending older, Pending newer) {
+        long arrival = older.arrivalNanos() == 0 ? newer.arrivalNanos()
+                : newer.arrivalNanos() == 0 ? older.arrivalNanos()
+                : Math.min(older.arrivalNanos(), newer.arrivalNanos());
+        return new Pending(newer.update(), arrival);
+    }
+
+    // Always runs, after the pending updates of the same flush
+    void postEvent(Runnable event) {
+        posted.incrementAndGet();
+        events.add(event);
+        schedule();
+    }
+
+    long getPosted() {
+        return posted.get();
+    }
+
+    // Updates that were replaced by a newer one before they were applied
+    long getMerged() {
+        return merged.get();
+    }
+
+    long getFlushes() {
+        return flushes.get();
+    }
+
+    String summary() {
+        return "UI updates: " + getPosted() + " posted, " + getMerged() + " merged, " + getFlushes() + " flushes";
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    private void flush() {
+        long wait = lastFlushNanos + frameNanos - System.nanoTime();
+        if (lastFlushNanos != 0 && wait > 0) {
+            // Too soon after the last one; apply everything at the next frame instead
+            if (delay == null) {
+                delay = new Timer(0, e -> flush());
+                delay.setRepeats(false);
+            }
+            delay.setInitialDelay((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+            delay.restart();
+            return;
+        }
+        lastFlushNanos = System.nanoTime();
+        flushes.incrementAndGet();
+        // Cleared first, so anything posted while draining gets a flush of its own
+        scheduled.set(false);
+        for (Object key : latest.keySet()) {
+            Pending pending = latest.remove(key);
+            if (pending != null) {
+                pending.update().run();
+                if (pending.arrivalNanos() != 0) {
+                    arrivalLatency.record(System.nanoTime() - pending.arrivalNanos());
+                }
+            }
+        }
+        Runnable event;
+        while ((event = events.poll()) != null) {
+            event.run();
+        }
+    }
+}
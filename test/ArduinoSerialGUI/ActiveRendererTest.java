@@ -0,0 +1,67 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveRendererTest {
+
+    private static final int FPS = 50;
+
+    @Test
+    void intervalCountsFramesShownNotFramesDrawn() throws Exception {
+        JPanel panel = new JPanel();
+        panel.setSize(64, 48);
+        LatencyRecorder frameTime = new LatencyRecorder("frame time");
+        LatencyRecorder frameInterval = new LatencyRecorder("frame interval");
+        ActiveRenderer renderer = new ActiveRenderer("test", panel, FPS, new ActiveRenderer.Scene() {
+            @Override
+            public void update(int width, int height) {
+            }
+
+            @Override
+            public void paint(Graphics2D g2d, int width, int height) {
+            }
+        }, frameTime, frameInterval);
+        BufferedImage screen = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+
+        SwingUtilities.invokeAndWait(() -> renderer.setActive(true));
+        renderer.start();
+        boolean[] shown = new boolean[1];
+        while (!shown[0]) {
+            Thread.sleep(5);
+            SwingUtilities.invokeAndWait(() -> shown[0] = renderer.paintFrame(g));
+        }
+
+        // Paused, no new frames come, so painting again shows the same one
+        SwingUtilities.invokeAndWait(() -> renderer.setActive(false));
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> renderer.paintFrame(g));
+        SwingUtilities.invokeAndWait(() -> renderer.paintFrame(g));
+        SwingUtilities.invokeAndWait(() -> renderer.paintFrame(g));
+        assertEquals(0, frameInterval.getCount(), "the same frame painted again is not a new frame");
+
+        // Then the EDT is busy for a while, and the render thread keeps drawing
+        SwingUtilities.invokeAndWait(() -> renderer.setActive(true));
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> renderer.paintFrame(g));
+        long drawnBefore = frameTime.getCount();
+        Thread.sleep(300);
+        assertTrue(frameTime.getCount() - drawnBefore >= 5, "render thread kept drawing");
+        SwingUtilities.invokeAndWait(() -> renderer.paintFrame(g));
+        assertEquals(1, frameInterval.getCount());
+        assertTrue(frameInterval.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(300),
+                "the stall shows up in the interval: " + frameInterval.summary());
+
+        SwingUtilities.invokeAndWait(() -> renderer.setActive(false));
+        g.dispose();
+    }
+}
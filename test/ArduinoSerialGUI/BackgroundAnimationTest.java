@@ -0,0 +1,52 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BackgroundAnimationTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 360;
+    private static final int FRAMES = 2_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Bytes allocated by this thread while drawing the given number of frames
+    private static long allocatedBy(BackgroundAnimation animation, Graphics2D g2d, int width, int height) {
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            animation.update(width, height);
+            animation.paint(g2d, width, height);
+        }
+        return THREADS.getThreadAllocatedBytes(thread) - before;
+    }
+
+    @Test
+    void steadyFramesAllocateNothing() {
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = frame.createGraphics();
+        BackgroundAnimation animation = new BackgroundAnimation(500, WIDTH, HEIGHT);
+        // The first frames build the layers and warm up the drawing loops
+        allocatedBy(animation, g2d, WIDTH, HEIGHT);
+        assertEquals(0, allocatedBy(animation, g2d, WIDTH, HEIGHT));
+        g2d.dispose();
+    }
+
+    @Test
+    void emptyAreaDoesNotRebuildTheLayers() {
+        BufferedImage frame = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = frame.createGraphics();
+        BackgroundAnimation animation = new BackgroundAnimation(500, WIDTH, HEIGHT);
+        allocatedBy(animation, g2d, 0, HEIGHT);
+        assertEquals(0, allocatedBy(animation, g2d, 0, HEIGHT));
+        assertEquals(0, allocatedBy(animation, g2d, WIDTH, 0));
+        g2d.dispose();
+    }
+}
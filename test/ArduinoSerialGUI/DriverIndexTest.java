@@ -0,0 +1,58 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverIndexTest {
+
+    @Test
+    void statsHandedOutDoNotChangeWithLaterSaves() {
+        DriverIndex drivers = new DriverIndex();
+        drivers.add(new PlayerScore("ANNA", 70_000, 4));
+        DriverStats before = drivers.get("ANNA");
+        drivers.add(new PlayerScore("ANNA", 60_000, 6));
+        assertEquals(1, before.getRuns());
+        assertEquals(70_000, before.getBestTimeMillis());
+        assertEquals(2, drivers.get("ANNA").getRuns());
+        assertEquals(60_000, drivers.search("an").get(0).getBestTimeMillis());
+    }
+
+    @Test
+    void searchOnAnotherThreadSeesWholeSaves() throws Exception {
+        DriverIndex drivers = new DriverIndex();
+        drivers.add(new PlayerScore("ANNA", 100_000, 0));
+        AtomicBoolean saving = new AtomicBoolean(true);
+        // Each run is faster and keeps more lives than the one before, so the
+        // best run is always the last one saved and gives away the run count
+        Thread saver = new Thread(() -> {
+            for (int run = 1; run < 200_000; run++) {
+                drivers.add(new PlayerScore("ANNA", 100_000 - run / 4, Math.min(GameState.MAX_LIVES, run)));
+                if (run % 1000 == 0) {
+                    drivers.loadBoard(List.of()); // Keeps the board runs from piling up
+                }
+            }
+            saving.set(false);
+        });
+        saver.start();
+        int checks = 0;
+        while (saving.get() || checks == 0) {
+            DriverStats stats = drivers.search("ann").get(0);
+            int runs = stats.getRuns();
+            int counted = 0;
+            for (int count : stats.getLivesHistogram()) {
+                counted += count;
+            }
+            assertEquals(runs, counted, "histogram and run count from the same save");
+            assertEquals(Math.min(GameState.MAX_LIVES, runs - 1), stats.getBestLives());
+            assertEquals(100_000 - (runs - 1) / 4, stats.getBestTimeMillis());
+            checks++;
+        }
+        saver.join();
+        assertTrue(checks > 0);
+    }
+}
@@ -0,0 +1,75 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameStateTest {
+
+    @Test
+    void startedStationHasFullLivesAndARunningClock() {
+        StationEngine station = new StationEngine(0, "STATION 1", new InMemoryTransport("test"),
+                EventJournal.disabled(), new StationEngine.Listener() {
+                    @Override
+                    public void onChange(StationEngine station, GameState previous, GameState next, long nanos,
+                                         boolean fromSerial) {
+                    }
+
+                    @Override
+                    public void onStatus(StationEngine station, String message) {
+                    }
+
+                    @Override
+                    public void onConnected(StationEngine station) {
+                    }
+                });
+        assertEquals(GameState.MAX_LIVES, station.currentState().attempts());
+        station.start();
+        GameState state = station.currentState();
+        assertEquals(GameState.MAX_LIVES, state.attempts());
+        assertFalse(state.gameOver());
+        assertTrue(state.clockRunning());
+        assertEquals(1, station.getSessionsStarted());
+
+        // Started and finished runs stay in step whichever way a run begins
+        station.restart();
+        station.finish();
+        station.resetTimer();
+        station.finish();
+        station.restart();
+        station.stopClock();
+        station.restart();
+        station.finish();
+        assertEquals(4, station.getSessionsStarted());
+        assertEquals(3, station.getSessionsFinished());
+    }
+
+    @Test
+    void resetTimerKeepsLivesLeft() {
+        GameState state = GameState.initial(0).restart(0).buzz(4, 10).resetTimer(20);
+        assertEquals(4, state.attempts());
+        assertFalse(state.gameOver());
+        assertEquals(20, state.runStartNanos());
+    }
+
+    @Test
+    void resetTimerAfterCrashingOutStartsOnFullLives() {
+        GameState over = GameState.initial(0).restart(0).buzz(0, 10);
+        assertTrue(over.gameOver());
+        GameState state = over.resetTimer(20);
+        assertEquals(GameState.MAX_LIVES, state.attempts());
+        assertFalse(state.gameOver());
+        assertTrue(state.clockRunning());
+    }
+
+    @Test
+    void gameEndsOnce() {
+        GameState over = GameState.initial(0).restart(0).finish(5_000_000);
+        assertSame(over, over.finish(9_000_000));
+        assertSame(over, over.buzz(0, 9_000_000));
+        assertEquals(5, over.elapsedMillis(9_000_000));
+    }
+}
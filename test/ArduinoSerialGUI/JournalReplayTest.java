@@ -0,0 +1,49 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalReplayTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void rebuildLeavesOutScoresFromBeforeAReset() throws IOException {
+        File file = new File(directory, "events.journal");
+        EventJournal journal = EventJournal.open(file);
+        journal.append(JournalEvent.score(0, 1, "HAM", 61_000, 3));
+        journal.append(JournalEvent.score(1, 2, "VER", 59_500, 5));
+        journal.append(JournalEvent.Type.CLEAR, 0, 3, 0);
+        journal.append(JournalEvent.score(0, 4, "LEC", 70_250, 2));
+        journal.close();
+
+        List<PlayerScore> scores = JournalReplay.rebuildLeaderboard(file);
+        assertEquals(1, scores.size());
+        assertEquals("LEC", scores.get(0).player);
+        assertEquals(70_250, scores.get(0).timeMillis);
+        assertEquals(2, scores.get(0).livesLeft);
+    }
+
+    @Test
+    void rebuiltCsvReadsBackAsTheLeaderboard() throws IOException {
+        File file = new File(directory, "events.journal");
+        EventJournal journal = EventJournal.open(file);
+        journal.append(JournalEvent.score(0, 1, "HAM", 61_000, 3));
+        journal.append(JournalEvent.score(1, 2, "VER", 59_500, 5));
+        journal.close();
+
+        File csv = new File(directory, "leaderboard.csv");
+        JournalReplay.main(new String[] {"rebuild", file.getPath(), csv.getPath()});
+        List<PlayerScore> scores = LeaderboardStore.readCsv(csv);
+        assertEquals(2, scores.size());
+        assertEquals("VER", scores.get(1).player);
+        assertEquals(59_500, scores.get(1).timeMillis);
+    }
+}
@@ -0,0 +1,107 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardServerTest {
+
+    @TempDir
+    File directory;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<String> errors = new ArrayList<>();
+    private Leaderboard leaderboard;
+    private LeaderboardServer server;
+
+    private Leaderboard openLeaderboard() throws IOException {
+        leaderboard = new Leaderboard(new File(directory, "leaderboard.csv"), new File(directory, "leaderboard.bin"),
+                0, "row", errors::add);
+        leaderboard.load();
+        return leaderboard;
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) {
+            server.stop();
+        }
+        if (leaderboard != null) {
+            leaderboard.close();
+        }
+        System.clearProperty("buzzwire.boardPort");
+        System.clearProperty("buzzwire.boardHost");
+    }
+
+    private HttpResponse<String> get(String path, String etag) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.getPort() + path));
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void unchangedBoardIsNotSentAgain() throws Exception {
+        openLeaderboard().save(new PlayerScore("HAM", 61_000, 3));
+        server = new LeaderboardServer(leaderboard);
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+        HttpResponse<String> first = get("/leaderboard.json", null);
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag);
+        assertTrue(first.body().contains("\"driver\":\"HAM\""));
+
+        HttpResponse<String> again = get("/leaderboard.json", etag);
+        assertEquals(304, again.statusCode());
+        assertEquals("", again.body());
+        assertEquals(etag, again.headers().firstValue("ETag").orElse(null));
+
+        // A new score is a new version of the board
+        leaderboard.save(new PlayerScore("VER", 59_000, 5));
+        HttpResponse<String> changed = get("/leaderboard.json", etag);
+        assertEquals(200, changed.statusCode());
+        String newEtag = changed.headers().firstValue("ETag").orElse(null);
+        assertNotEquals(etag, newEtag);
+        assertTrue(changed.body().indexOf("VER") < changed.body().indexOf("HAM"));
+        assertEquals(304, get("/leaderboard.json", newEtag).statusCode());
+
+        // Each view and page has its own tag
+        HttpResponse<String> html = get("/?page=1&size=10", null);
+        assertEquals(200, html.statusCode());
+        assertNotEquals(newEtag, html.headers().firstValue("ETag").orElse(null));
+        assertEquals(List.of(), errors);
+    }
+
+    @Test
+    void listensOnlyOnThisMachineByDefault() throws Exception {
+        int port;
+        try (ServerSocket free = new ServerSocket(0)) {
+            port = free.getLocalPort();
+        }
+        System.setProperty("buzzwire.boardPort", String.valueOf(port));
+        server = LeaderboardServer.startFromProperties(openLeaderboard());
+        assertNotNull(server);
+        assertTrue(server.getAddress().getAddress().isLoopbackAddress(), server.getAddress().toString());
+        assertEquals(200, get("/", null).statusCode());
+    }
+}
@@ -0,0 +1,135 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardStoreTest {
+
+    @TempDir
+    File directory;
+
+    private File csv() {
+        return new File(directory, "leaderboard.csv");
+    }
+
+    private File storeFile() {
+        return new File(directory, "leaderboard.bin");
+    }
+
+    private Leaderboard openLeaderboard(List<String> errors) throws IOException {
+        Leaderboard leaderboard = new Leaderboard(csv(), storeFile(), 0, "row", errors::add);
+        leaderboard.load();
+        return leaderboard;
+    }
+
+    private static List<String> players(Leaderboard leaderboard) {
+        List<String> players = new ArrayList<>();
+        for (PlayerScore score : leaderboard.getIndex().range(0, Integer.MAX_VALUE)) {
+            players.add(score.player);
+        }
+        return players;
+    }
+
+    @Test
+    void namesWithCommasQuotesAndLineBreaksSurviveTheCsv() throws IOException {
+        List<PlayerScore> scores = List.of(
+                new PlayerScore("Smith, J", 61_000, 3),
+                new PlayerScore("\"Flash\" Gordon", 62_000, 4),
+                new PlayerScore("Two\nLines", 63_000, 5),
+                new PlayerScore("Plain", 64_000, 6));
+        LeaderboardStore.writeCsv(scores, csv());
+        List<PlayerScore> read = LeaderboardStore.readCsv(csv());
+        assertEquals(scores.size(), read.size());
+        for (int i = 0; i < scores.size(); i++) {
+            assertEquals(scores.get(i).player, read.get(i).player);
+            assertEquals(scores.get(i).timeMillis, read.get(i).timeMillis);
+            assertEquals(scores.get(i).livesLeft, read.get(i).livesLeft);
+        }
+    }
+
+    @Test
+    void rowsFromOlderVersionsStillRead() throws IOException {
+        Files.writeString(csv().toPath(), "Player,Time,LivesLeft\nHAM,61.5,3\nbroken row\nVER,59,5\n");
+        List<PlayerScore> read = LeaderboardStore.readCsv(csv());
+        assertEquals(2, read.size());
+        assertEquals(61_500, read.get(0).timeMillis);
+        assertEquals("VER", read.get(1).player);
+    }
+
+    @Test
+    void longNamesAreCutBetweenCharacters() {
+        byte[] name = "é".repeat(10).getBytes(StandardCharsets.UTF_8);
+        byte[] cut = LeaderboardStore.truncateUtf8(name, 7);
+        assertEquals(6, cut.length);
+        assertEquals("ééé", new String(cut, StandardCharsets.UTF_8));
+        byte[] emoji = "a😀".getBytes(StandardCharsets.UTF_8);
+        assertEquals("a", new String(LeaderboardStore.truncateUtf8(emoji, 4), StandardCharsets.UTF_8));
+        assertEquals(emoji.length, LeaderboardStore.truncateUtf8(emoji, emoji.length).length);
+    }
+
+    @Test
+    void savedScoresDoNotForceAReimport() throws IOException {
+        List<String> errors = new ArrayList<>();
+        Leaderboard leaderboard = openLeaderboard(errors);
+        leaderboard.save(new PlayerScore("Smith, J", 61_000, 3));
+        leaderboard.save(new PlayerScore("VER", 59_000, 5));
+        leaderboard.close();
+        assertEquals(List.of(), errors);
+
+        LeaderboardStore store = new LeaderboardStore(storeFile(), LeaderboardStore.namesFileFor(storeFile()));
+        assertFalse(store.isOutOfDate(csv()));
+        assertEquals(2, LeaderboardStore.readCsv(csv()).size());
+
+        Leaderboard reopened = openLeaderboard(errors);
+        assertEquals(List.of("VER", "Smith, J"), players(reopened));
+        reopened.close();
+    }
+
+    @Test
+    void editedOrDeletedCsvIsImportedAgain() throws IOException {
+        List<String> errors = new ArrayList<>();
+        Leaderboard leaderboard = openLeaderboard(errors);
+        leaderboard.save(new PlayerScore("HAM", 61_000, 3));
+        leaderboard.save(new PlayerScore("VER", 59_000, 5));
+        leaderboard.close();
+
+        // Same length, so only the timestamp shows the edit
+        Files.writeString(csv().toPath(), Files.readString(csv().toPath()).replace("HAM", "LEC"));
+        assertTrue(csv().setLastModified(csv().lastModified() + 2000));
+        leaderboard = openLeaderboard(errors);
+        assertEquals(List.of("VER", "LEC"), players(leaderboard));
+        leaderboard.close();
+
+        assertTrue(csv().delete());
+        leaderboard = openLeaderboard(errors);
+        assertEquals(List.of(), players(leaderboard));
+        leaderboard.close();
+        assertEquals(List.of(), errors);
+    }
+
+    @Test
+    void clearedBoardStaysClearedAfterARestart() throws IOException {
+        List<String> errors = new ArrayList<>();
+        Leaderboard leaderboard = openLeaderboard(errors);
+        leaderboard.save(new PlayerScore("HAM", 61_000, 3));
+        leaderboard.clear();
+        leaderboard.save(new PlayerScore("VER", 59_000, 5));
+        leaderboard.close();
+
+        leaderboard = openLeaderboard(errors);
+        assertEquals(List.of("VER"), players(leaderboard));
+        leaderboard.close();
+        assertEquals(List.of(), errors);
+    }
+}
@@ -0,0 +1,91 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardTableModelTest {
+
+    // Ties on lives and time, so positions depend on how ties are counted
+    private static final List<PlayerScore> SCORES = List.of(
+            new PlayerScore("ALONSO", 60_000, 5),
+            new PlayerScore("BOTTAS", 60_000, 5),
+            new PlayerScore("ALBON", 60_000, 5),
+            new PlayerScore("BOTTAS", 55_000, 5),
+            new PlayerScore("ALONSO", 70_000, 4),
+            new PlayerScore("ALBON", 70_000, 4));
+
+    private final LeaderboardIndex index = new LeaderboardIndex();
+    private final DriverIndex drivers = new DriverIndex();
+
+    LeaderboardTableModelTest() {
+        index.load(SCORES);
+        drivers.load(SCORES);
+    }
+
+    @Test
+    void searchShowsTheSamePositionsAsTheFullBoard() {
+        LeaderboardTableModel model = new LeaderboardTableModel(index, drivers);
+        assertEquals(SCORES.size(), model.getRowCount());
+        for (int row = 0; row < model.getRowCount(); row++) {
+            assertEquals(row + 1, model.getValueAt(row, 0));
+        }
+
+        for (String prefix : List.of("AL", "ALB", "B")) {
+            model.setFilter(prefix);
+            for (int row = 0; row < model.getRowCount(); row++) {
+                PlayerScore score = index.get((Integer) model.getValueAt(row, 0) - 1);
+                assertEquals(score.player, model.getValueAt(row, 1), prefix + " row " + row);
+                assertEquals(PlayerScore.formatRaceTime(score.timeMillis), model.getValueAt(row, 2));
+            }
+        }
+        // The three tied runs share a time, so the name pins down which one each row is
+        model.setFilter("");
+        List<Object> albonRows = new ArrayList<>();
+        for (int row = 0; row < model.getRowCount(); row++) {
+            if (model.getValueAt(row, 1).equals("ALBON")) {
+                albonRows.add(model.getValueAt(row, 0));
+            }
+        }
+        model.setFilter("ALBON");
+        assertEquals(albonRows, List.of(model.getValueAt(0, 0), model.getValueAt(1, 0)));
+    }
+
+    @Test
+    void searchRunsOnTheSearcherAndOnlyTheLatestIsShown() {
+        Queue<Runnable> searcher = new ArrayDeque<>();
+        Queue<Runnable> edt = new ArrayDeque<>();
+        LeaderboardTableModel model = new LeaderboardTableModel(index, drivers, searcher::add, edt::add);
+        int[] events = new int[1];
+        model.addTableModelListener(e -> events[0]++);
+
+        model.setFilter("A");
+        model.setFilter("AL");
+        model.setFilter("BOT");
+        // Nothing changes until a search has come back
+        assertEquals(SCORES.size(), model.getRowCount());
+        assertEquals(0, events[0]);
+        assertEquals(3, searcher.size());
+
+        while (!searcher.isEmpty()) {
+            searcher.poll().run();
+        }
+        assertEquals(1, edt.size(), "overtaken searches are skipped");
+        edt.poll().run();
+        assertEquals(2, model.getRowCount());
+        assertEquals(1, events[0]);
+
+        // A result that comes back after the filter moved on is dropped
+        model.setFilter("ALO");
+        searcher.poll().run();
+        model.setFilter("");
+        assertEquals(SCORES.size(), model.getRowCount());
+        edt.poll().run();
+        assertEquals(SCORES.size(), model.getRowCount());
+    }
+}
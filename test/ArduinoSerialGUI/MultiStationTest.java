@@ -0,0 +1,99 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 32 stations in one process, each fed by its own simulated rig at
+// kHz rates, must between them see every line their rigs sent
+class MultiStationTest {
+
+    private static final int STATIONS = 32;
+    private static final String SCENARIO = String.join("\n",
+            "repeat 2",
+            "    race pro every=20ms jitter=5ms",
+            "    chatter 2000 500ms",
+            "    mix 1000 500ms",
+            "    reset",
+            "end",
+            "");
+
+    @TempDir
+    File directory;
+
+    @Test
+    void thirtyTwoStationsLoseNoEvents() throws Exception {
+        File scenario = new File(directory, "scenario.txt");
+        Files.writeString(scenario.toPath(), SCENARIO);
+
+        List<SimulatorTransport> rigs = new ArrayList<>();
+        List<SerialTransport> transports = new ArrayList<>();
+        for (int i = 0; i < STATIONS; i++) {
+            SimulatorTransport rig = new SimulatorTransport(scenario, i, SimulatorTransport.DEFAULT_BUFFER,
+                    new LatencyRecorder("Pickup lag"));
+            rigs.add(rig);
+            transports.add(rig);
+        }
+        AtomicLongArray applied = new AtomicLongArray(STATIONS);
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+        List<StationEngine> stations = StationEngine.createAll(transports, EventJournal.disabled(),
+                new StationEngine.Listener() {
+                    @Override
+                    public void onChange(StationEngine station, GameState previous, GameState next, long nanos,
+                                         boolean fromSerial) {
+                        if (fromSerial) {
+                            applied.incrementAndGet(station.getIndex());
+                        }
+                    }
+
+                    @Override
+                    public void onStatus(StationEngine station, String message) {
+                        problems.add(station.getName() + ": " + message);
+                    }
+
+                    @Override
+                    public void onConnected(StationEngine station) {
+                    }
+                });
+        for (StationEngine station : stations) {
+            station.start();
+        }
+
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!rigs.stream().allMatch(SimulatorTransport::isEnded)) {
+            assertTrue(System.nanoTime() < deadline, "Rigs still running after a minute");
+            Thread.sleep(50);
+        }
+
+        assertEquals(List.of(), new ArrayList<>(problems));
+        for (int i = 0; i < STATIONS; i++) {
+            SimulatorTransport rig = rigs.get(i);
+            StationEngine station = stations.get(i);
+            String name = station.getName();
+            assertEquals(linesIn(scenario, i), rig.getLinesSent(), name + " lines sent");
+            assertEquals(0, rig.getLinesOverrun(), name + " lines overrun");
+            assertEquals(rig.getLinesSent(), station.getLinesParsed(), name + " lines parsed");
+            assertEquals(station.getLinesParsed() - station.getMalformedLines(), applied.get(i),
+                    name + " lines applied");
+        }
+    }
+
+    private static long linesIn(File scenario, long seed) throws IOException {
+        ArduinoSimulator simulator = ArduinoSimulator.load(scenario, seed);
+        long lines = 0;
+        while (simulator.next()) {
+            lines++;
+        }
+        return lines;
+    }
+}
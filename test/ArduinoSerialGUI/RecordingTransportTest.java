@@ -0,0 +1,95 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordingTransportTest {
+
+    @TempDir
+    File directory;
+
+    // Sends one line per open, like a rig that is unplugged after each
+    private static final class OneLineTransport implements SerialTransport {
+        int opens;
+        boolean open;
+        boolean sent;
+
+        @Override
+        public void open() {
+            opens++;
+            open = true;
+            sent = false;
+        }
+
+        @Override
+        public int read(byte[] buffer) {
+            if (sent) {
+                return -1;
+            }
+            sent = true;
+            byte[] line = (opens + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(line, 0, buffer, 0, line.length);
+            return line.length;
+        }
+
+        @Override
+        public String describe() {
+            return "one line";
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    @Test
+    void reconnectsAppendToTheCapture() throws IOException {
+        File capture = new File(directory, "capture.bin");
+        RecordingTransport recording = new RecordingTransport(new OneLineTransport(), capture);
+        byte[] buffer = new byte[64];
+        for (int i = 0; i < 3; i++) {
+            recording.open();
+            while (recording.read(buffer) >= 0) {
+                // Recorded as it is read
+            }
+            recording.close();
+        }
+
+        ReplayTransport replay = new ReplayTransport(capture, Double.POSITIVE_INFINITY);
+        replay.open();
+        ByteArrayOutputStream replayed = new ByteArrayOutputStream();
+        int count;
+        while ((count = replay.read(buffer)) >= 0) {
+            replayed.write(buffer, 0, count);
+        }
+        replay.close();
+        assertEquals("1\r\n2\r\n3\r\n", replayed.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void sourceIsClosedWhenTheCaptureCannotBeOpened() {
+        OneLineTransport source = new OneLineTransport();
+        RecordingTransport recording = new RecordingTransport(source, new File(directory, "missing/capture.bin"));
+        assertThrows(IOException.class, recording::open);
+        assertEquals(1, source.opens);
+        assertFalse(source.open);
+    }
+
+    @Test
+    void badReplaySpeedFallsBackToOriginalSpeed() {
+        assertEquals("replay:capture.bin@1.0", SerialTransport.fromSpec("replay:capture.bin@fast").describe());
+        assertEquals("replay:capture.bin@1.0", SerialTransport.fromSpec("replay:capture.bin@-2").describe());
+        assertEquals("replay:capture.bin@10.0", SerialTransport.fromSpec("replay:capture.bin@10").describe());
+        assertEquals("replay:capture.bin@Infinity", SerialTransport.fromSpec("replay:capture.bin@max").describe());
+    }
+}
@@ -0,0 +1,92 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreWriterTest {
+
+    @TempDir
+    File directory;
+
+    private static List<String> players(File csv) throws IOException {
+        List<String> players = new ArrayList<>();
+        for (PlayerScore score : LeaderboardStore.readCsv(csv)) {
+            players.add(score.player);
+        }
+        return players;
+    }
+
+    private static void waitFor(List<String> errors, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (errors.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void writerKeepsGoingAfterAFailedWrite() throws Exception {
+        // The CSV's directory is missing at first, so the first save fails
+        File folder = new File(directory, "scores");
+        File csv = new File(folder, "leaderboard.csv");
+        File storeFile = new File(directory, "leaderboard.bin");
+        LeaderboardStore store = new LeaderboardStore(storeFile, LeaderboardStore.namesFileFor(storeFile));
+        store.load();
+        List<String> errors = new CopyOnWriteArrayList<>();
+        ScoreWriter writer = new ScoreWriter(csv, store, "row", errors::add);
+
+        writer.save(new PlayerScore("HAM", 61_000, 3));
+        waitFor(errors, 1);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Score (HAM 1:01.000) may not have been saved"), errors.get(0));
+        assertEquals(1, writer.getLostScores());
+
+        assertTrue(folder.mkdir());
+        writer.save(new PlayerScore("VER", 59_000, 5));
+        writer.save(new PlayerScore("LEC", 70_000, 2));
+        writer.close();
+        assertEquals(List.of("VER", "LEC"), players(csv));
+        assertEquals(1, errors.size());
+
+        // The failure leaves the store unmatched, so the next start imports the CSV
+        assertTrue(store.isOutOfDate(csv));
+    }
+
+    @Test
+    void saveAfterCloseIsReported() {
+        File storeFile = new File(directory, "leaderboard.bin");
+        LeaderboardStore store = new LeaderboardStore(storeFile, LeaderboardStore.namesFileFor(storeFile));
+        List<String> errors = new CopyOnWriteArrayList<>();
+        ScoreWriter writer = new ScoreWriter(new File(directory, "leaderboard.csv"), store, "row", errors::add);
+        writer.close();
+        writer.save(new PlayerScore("HAM", 61_000, 3));
+        assertEquals(List.of("Score (HAM 1:01.000) not saved to disk: the score writer has stopped"), errors);
+        assertEquals(1, writer.getLostScores());
+    }
+
+    @Test
+    void badSyncPolicyFallsBackToEveryRow() throws Exception {
+        File csv = new File(directory, "leaderboard.csv");
+        File storeFile = new File(directory, "leaderboard.bin");
+        LeaderboardStore store = new LeaderboardStore(storeFile, LeaderboardStore.namesFileFor(storeFile));
+        store.load();
+        for (String policy : List.of("rows:abc", "interval:-5", "every row")) {
+            List<String> errors = new CopyOnWriteArrayList<>();
+            ScoreWriter writer = new ScoreWriter(csv, store, policy, errors::add);
+            assertEquals(List.of("Score sync policy \"" + policy
+                    + "\" is not row, rows:N or interval:MS, syncing after every row"), errors);
+            writer.save(new PlayerScore("HAM", 61_000, 3));
+            writer.close();
+            assertEquals(1, errors.size());
+        }
+        assertEquals(List.of("HAM", "HAM", "HAM"), players(csv));
+    }
+}
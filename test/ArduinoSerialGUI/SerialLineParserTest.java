@@ -0,0 +1,108 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SerialLineParserTest {
+
+    // Every callback as a string, in the order they came
+    private final List<String> events = new ArrayList<>();
+    private final SerialLineParser parser = new SerialLineParser(new SerialLineParser.Listener() {
+        @Override
+        public void onLives(int lives, long arrivalNanos) {
+            events.add("lives " + lives + " @" + arrivalNanos);
+        }
+
+        @Override
+        public void onRestart(long arrivalNanos) {
+            events.add("restart @" + arrivalNanos);
+        }
+
+        @Override
+        public void onResetTimer(long arrivalNanos) {
+            events.add("reset timer @" + arrivalNanos);
+        }
+
+        @Override
+        public void onMalformedLine(long arrivalNanos) {
+            events.add("malformed @" + arrivalNanos);
+        }
+    });
+
+    private void feed(String text, long arrivalNanos) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        parser.feed(bytes, 0, bytes.length, arrivalNanos);
+    }
+
+    @Test
+    void parsesLivesAndCommands() {
+        feed("3\r\nRESTART\r\nReset Timer\r\n  5 \r\n", 1);
+        assertEquals(List.of("lives 3 @1", "restart @1", "reset timer @1", "lives 5 @1"), events);
+        assertEquals(4, parser.getLinesParsed());
+        assertEquals(0, parser.getMalformedLines());
+    }
+
+    @Test
+    void lineSplitAcrossReadsIsDispatchedWhenItEnds() {
+        feed("Res", 1);
+        feed("et Tim", 2);
+        feed("er\r", 3);
+        feed("\n2", 4);
+        assertEquals(List.of("reset timer @3"), events);
+        feed("\r\n", 5);
+        assertEquals(List.of("reset timer @3", "lives 2 @5"), events);
+    }
+
+    @Test
+    void crlfSplitBetweenReadsIsOneLine() {
+        feed("4\r", 1);
+        feed("\n", 2);
+        feed("\r\n\n\r", 3);
+        assertEquals(List.of("lives 4 @1"), events);
+        assertEquals(1, parser.getLinesParsed());
+    }
+
+    @Test
+    void feedHonoursOffsetAndCount() {
+        byte[] bytes = "xx7\r\nyy".getBytes(StandardCharsets.ISO_8859_1);
+        parser.feed(bytes, 2, 3, 1);
+        assertEquals(List.of("lives 7 @1"), events);
+    }
+
+    @Test
+    void overlongLineIsOneMalformedLine() {
+        feed("1".repeat(200) + "\r\n3\r\n", 1);
+        assertEquals(List.of("malformed @1", "lives 3 @1"), events);
+        assertEquals(2, parser.getLinesParsed());
+        assertEquals(1, parser.getMalformedLines());
+    }
+
+    @Test
+    void overflowCarriesAcrossReads() {
+        feed("R".repeat(60), 1);
+        feed("R".repeat(60), 2);
+        feed("\nrestart\n", 3);
+        assertEquals(List.of("malformed @3", "restart @3"), events);
+    }
+
+    @Test
+    void malformedLinesAreCountedAndSkipped() {
+        feed("abc\n-1\n1 2\n9999999999\nrestarts\nreset\n\u00ff\u0000\n2\n", 1);
+        assertEquals(7, parser.getMalformedLines());
+        assertEquals(8, parser.getLinesParsed());
+        assertEquals("lives 2 @1", events.get(events.size() - 1));
+    }
+
+    @Test
+    void resetDropsThePartialLine() {
+        feed("12", 1);
+        parser.reset();
+        feed("3\n", 2);
+        assertEquals(List.of("lives 3 @2"), events);
+    }
+}
@@ -0,0 +1,145 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The serial thread, the race timer and the buttons all move one station's
+// state at once. Every transition must build on the one before it, so
+// together they form a single chain from the first state to the last: no
+// buzz is overwritten, lives never go negative and each game ends once.
+class StationEngineStressTest {
+
+    private static final int RACES = 20_000;
+
+    private record Transition(GameState previous, GameState next) {
+    }
+
+    @Test
+    void serialTimerAndButtonsTogetherLoseNothing() throws Exception {
+        ConcurrentLinkedQueue<Transition> transitions = new ConcurrentLinkedQueue<>();
+        AtomicLong serialEvents = new AtomicLong();
+        InMemoryTransport rig = new InMemoryTransport("stress");
+        StationEngine station = new StationEngine(0, "STATION 1", rig, EventJournal.disabled(),
+                new StationEngine.Listener() {
+                    @Override
+                    public void onChange(StationEngine station, GameState previous, GameState next, long nanos,
+                                         boolean fromSerial) {
+                        if (fromSerial) {
+                            serialEvents.incrementAndGet();
+                        }
+                        if (next != previous) {
+                            transitions.add(new Transition(previous, next));
+                        }
+                    }
+
+                    @Override
+                    public void onStatus(StationEngine station, String message) {
+                    }
+
+                    @Override
+                    public void onConnected(StationEngine station) {
+                    }
+                });
+        GameState first = station.currentState();
+
+        // Each race is a Restart and lives counting down to a crash, with
+        // the odd Reset Timer; written in chunks that split lines
+        StringBuilder script = new StringBuilder();
+        long lines = 0;
+        SplittableRandom random = new SplittableRandom(6);
+        for (int race = 0; race < RACES; race++) {
+            script.append("Restart\r\n");
+            lines++;
+            for (int lives = GameState.MAX_LIVES - 1; lives >= 0; lives--) {
+                script.append(lives).append("\r\n");
+                lines++;
+                if (random.nextInt(8) == 0) {
+                    script.append("Reset Timer\r\n");
+                    lines++;
+                }
+            }
+        }
+        byte[] bytes = script.toString().getBytes(StandardCharsets.US_ASCII);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread timer = new Thread(() -> {
+            while (running.get()) {
+                // As if every race had run out of time
+                station.checkTimeLimit(System.nanoTime() + StationEngine.MAX_RUN_NANOS);
+            }
+        }, "timer");
+        Thread buttons = new Thread(() -> {
+            SplittableRandom presses = new SplittableRandom(7);
+            while (running.get()) {
+                switch (presses.nextInt(4)) {
+                    case 0 -> station.restart();
+                    case 1 -> station.stopClock();
+                    case 2 -> station.finish();
+                    default -> station.resetTimer();
+                }
+            }
+        }, "buttons");
+        station.start();
+        timer.start();
+        buttons.start();
+        for (int offset = 0; offset < bytes.length; ) {
+            int count = Math.min(bytes.length - offset, 1 + random.nextInt(37));
+            byte[] chunk = new byte[count];
+            System.arraycopy(bytes, offset, chunk, 0, count);
+            rig.write(chunk);
+            offset += count;
+        }
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (serialEvents.get() < lines && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        running.set(false);
+        timer.join();
+        buttons.join();
+
+        assertEquals(lines, serialEvents.get(), "serial events applied");
+
+        // Walk the chain; two transitions from the same state would mean one
+        // of them was lost
+        Map<GameState, GameState> successors = new IdentityHashMap<>();
+        long gamesEnded = 0;
+        for (Transition transition : transitions) {
+            assertNull(successors.put(transition.previous(), transition.next()), "two transitions from one state");
+            GameState next = transition.next();
+            assertTrue(next.attempts() >= 0 && next.attempts() <= GameState.MAX_LIVES,
+                    "lives out of range: " + next.attempts());
+            if (!transition.previous().gameOver() && next.gameOver()) {
+                gamesEnded++;
+            }
+        }
+        GameState state = first;
+        long steps = 0;
+        long endsOnChain = 0;
+        while (successors.containsKey(state)) {
+            GameState next = successors.get(state);
+            if (!state.gameOver() && next.gameOver()) {
+                endsOnChain++;
+            }
+            // A finished game stays finished until something starts a new one
+            assertTrue(!state.gameOver() || next.gameOver() || next.clockRunning(), "game reopened without a start");
+            state = next;
+            steps++;
+        }
+        assertEquals(transitions.size(), steps, "transitions off the chain");
+        assertSame(station.currentState(), state);
+        assertEquals(gamesEnded, endsOnChain);
+        assertEquals(gamesEnded, station.getSessionsFinished());
+    }
+}
@@ -0,0 +1,143 @@
+package ArduinoSerialGUI;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UiBridgeTest {
+
+    private static final int FRAME_MILLIS = 16;
+
+    // Waits until everything posted so far has been applied
+    private static void drain(UiBridge bridge) throws Exception {
+        long flushes;
+        do {
+            flushes = bridge.getFlushes();
+            Thread.sleep(FRAME_MILLIS * 4);
+            SwingUtilities.invokeAndWait(() -> { });
+        } while (bridge.getFlushes() != flushes);
+    }
+
+    @Test
+    void floodOfStationEventsKeepsTheEdtResponsive() throws Exception {
+        int threads = 8;
+        int postsPerThread = 200_000;
+        UiBridge bridge = new UiBridge(FRAME_MILLIS, new LatencyRecorder("test"));
+        // One key per station, as the sessions use; written and read on the EDT only
+        long[] shown = new long[threads];
+        AtomicLong applied = new AtomicLong();
+
+        // A probe timestamps a no-op from outside the EDT and measures its wait
+        LatencyRecorder edtDelay = new LatencyRecorder("EDT delay");
+        SwingUtilities.invokeAndWait(() -> { }); // Starts the EDT before timing it
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        Thread probe = new Thread(() -> {
+            while (flooding.get()) {
+                long posted = System.nanoTime();
+                SwingUtilities.invokeLater(() -> edtDelay.record(System.nanoTime() - posted));
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        probe.start();
+
+        long startNanos = System.nanoTime();
+        List<Thread> stations = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int station = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= postsPerThread; i++) {
+                    long value = i;
+                    bridge.post(station, () -> {
+                        shown[station] = value;
+                        applied.incrementAndGet();
+                    }, System.nanoTime());
+                }
+            });
+            stations.add(thread);
+            thread.start();
+        }
+        for (Thread thread : stations) {
+            thread.join();
+        }
+        long floodMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        flooding.set(false);
+        probe.join();
+        drain(bridge);
+
+        long[] expected = new long[threads];
+        Arrays.fill(expected, postsPerThread);
+        long[] last = new long[threads];
+        SwingUtilities.invokeAndWait(() -> System.arraycopy(shown, 0, last, 0, threads));
+        assertEquals(Arrays.toString(expected), Arrays.toString(last), "every station ends on its newest update");
+
+        long posted = (long) threads * postsPerThread;
+        assertEquals(posted, bridge.getPosted());
+        assertEquals(posted, bridge.getMerged() + applied.get());
+        // At most one update per station per flush, and flushes a frame apart
+        assertTrue(applied.get() <= bridge.getFlushes() * threads);
+        assertTrue(bridge.getFlushes() <= floodMillis / FRAME_MILLIS + 10,
+                bridge.getFlushes() + " flushes in " + floodMillis + " ms");
+        assertTrue(edtDelay.getCount() > 0);
+        // Posted straight to the EDT, 1.6 million updates would hold it up for
+        // seconds. The flood has more threads than most machines have cores,
+        // so this still allows for the EDT waiting for a core now and then.
+        assertTrue(edtDelay.getMaxNanos() < TimeUnit.SECONDS.toNanos(1), edtDelay.summary());
+    }
+
+    @Test
+    void mergedUpdatesKeepTheOldestArrival() throws Exception {
+        LatencyRecorder latency = new LatencyRecorder("test");
+        UiBridge bridge = new UiBridge(FRAME_MILLIS, latency);
+        CountDownLatch release = new CountDownLatch(1);
+        // Hold the EDT so the posts below are merged into one update
+        SwingUtilities.invokeLater(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        long now = System.nanoTime();
+        bridge.post("station", () -> { }, now - TimeUnit.SECONDS.toNanos(1));
+        bridge.post("station", () -> { }, now - TimeUnit.SECONDS.toNanos(5));
+        bridge.post("station", () -> { }, now);
+        bridge.post("station", () -> { });
+        release.countDown();
+        drain(bridge);
+
+        assertEquals(3, bridge.getMerged());
+        assertEquals(1, latency.getCount());
+        assertTrue(latency.getMaxNanos() >= TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void eventsAreNeverMergedAndRunInOrder() throws Exception {
+        UiBridge bridge = new UiBridge(FRAME_MILLIS, new LatencyRecorder("test"));
+        List<Integer> ran = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int event = i;
+            expected.add(event);
+            bridge.postEvent(() -> ran.add(event));
+            bridge.post("label", () -> { });
+        }
+        drain(bridge);
+        List<Integer> copy = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> copy.addAll(ran));
+        assertEquals(expected, copy);
+    }
+}